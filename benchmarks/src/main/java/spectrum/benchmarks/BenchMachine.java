@@ -0,0 +1,108 @@
+package spectrum.benchmarks;
+
+import lombok.Getter;
+import machine.MachineTypes;
+import machine.SpectrumClock;
+import spectrum.hardware.cpu.CPU;
+import spectrum.hardware.factory.CPUFactory;
+import spectrum.hardware.factory.MemoryFactory;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.machine.MachineContext;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory;
+import spectrum.hardware.memory.Memory64KImpl;
+import spectrum.hardware.ula.Ula;
+import spectrum.hardware.ula.UlaImpl;
+import z80core.NotifyOps;
+
+/**
+ * Bare 48K machine for CPU benchmarks: memory, {@link UlaImpl} with its contention
+ * and the CPU core from {@link CPUFactory}, no video, sound or other devices.
+ * <p>
+ * Frames are run like {@code SpectrumEmulator.executeFrame}: instructions through
+ * {@link CPU#executeInstruction()} up to the frame length, then the interrupt request
+ * and the clock frame end. Executed T-states and instructions are counted, an instruction
+ * being one {@code executeInstruction} call: a core may run a whole repeated block
+ * instruction (LDIR) in one call.
+ */
+public class BenchMachine implements NotifyOps {
+
+    @Getter
+    private final Memory memory;
+    @Getter
+    private final Ula ula;
+    @Getter
+    private final CPU cpu;
+    private final SpectrumClock clock;
+    private final boolean ulaAddTStates;
+    private final int frameTStates;
+
+    @Getter
+    private long tStates;
+    @Getter
+    private long instructions;
+
+    public BenchMachine(CpuImplementation core) {
+        MachineSettings settings = MachineSettings.ofDefault(core)
+                .setMachineType(MachineTypes.SPECTRUM48K)
+                .setEnableDiskController(false);
+        MachineContext context = new MachineContext(settings);
+        this.clock = context.getClock();
+        this.memory = MemoryFactory.createMemory(settings);
+        this.ula = new UlaImpl(memory, context);
+        this.cpu = CPUFactory.createCPU(settings, ula, this);
+        this.ulaAddTStates = settings.isUlaAddTStates();
+        this.frameTStates = settings.getMachineType().tstatesFrame;
+        cpu.reset();
+    }
+
+    /**
+     * Execute one frame.
+     */
+    public void runFrame() {
+        long executed = 0;
+        long count = 0;
+        while (executed < frameTStates) {
+            int cycles = cpu.executeInstruction();
+            if (!ulaAddTStates) {
+                ula.addTStates(cycles);
+            }
+            executed += cycles;
+            count++;
+        }
+        ula.syncClockListeners();
+        ula.requestInterrupt();
+        clock.endFrame();
+        tStates += executed;
+        instructions += count;
+    }
+
+    /**
+     * Replace the ROM with a program image that may write to itself (CP/M programs).
+     */
+    public void loadRom(byte[] rom) {
+        ((Memory64KImpl) memory).setRomWriteProtected(false);
+        memory.loadROM(rom);
+        cpu.reset();
+    }
+
+    /**
+     * Copy code or data into RAM.
+     */
+    public void poke(int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            memory.writeByte(address + i, bytes[i]);
+        }
+    }
+
+    @Override
+    public int breakpoint(int address, int opcode) {
+        return opcode;
+    }
+
+    @Override
+    public void execDone() {
+        // ignore
+    }
+
+}
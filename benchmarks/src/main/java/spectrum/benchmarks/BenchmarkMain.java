@@ -0,0 +1,57 @@
+package spectrum.benchmarks;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with the usual JMH command line options, then prints
+ * every result as emulated MHz and ns per instruction.
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar [JMH options, e.g. CpuBenchmark -p workload=LDIR]
+ * </pre>
+ */
+public class BenchmarkMain {
+
+    // EmulationCounters field names
+    private static final String T_STATES = "tStates";
+    private static final String INSTRUCTIONS = "instructions";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Collection<RunResult> results = new Runner(new CommandLineOptions(args)).run();
+        System.out.println();
+        System.out.printf("%-60s %12s %14s%n", "Benchmark", "MHz", "ns/instr");
+        for (RunResult result : results) {
+            Map<String, Result> secondary = result.getSecondaryResults();
+            Result tStates = secondary.get(T_STATES);
+            Result instructions = secondary.get(INSTRUCTIONS);
+            if (tStates == null || instructions == null) {
+                continue;
+            }
+            // Counters are per second, see the @OutputTimeUnit of the benchmarks
+            double mhz = tStates.getScore() / 1e6;
+            double nsPerInstruction = 1e9 / instructions.getScore();
+            System.out.printf("%-60s %12.2f %14.2f%n", label(result), mhz, nsPerInstruction);
+        }
+    }
+
+    private static String label(RunResult result) {
+        String benchmark = result.getParams().getBenchmark();
+        StringBuilder label = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+        Map<String, String> params = new TreeMap<>();
+        for (String key : result.getParams().getParamsKeys()) {
+            params.put(key, result.getParams().getParam(key));
+        }
+        params.forEach((key, value) -> label.append(' ').append(value));
+        return label.toString();
+    }
+
+}
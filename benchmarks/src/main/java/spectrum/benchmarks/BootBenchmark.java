@@ -0,0 +1,79 @@
+package spectrum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.memory.Memory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 48K ROM boot from reset to the copyright screen on the bare machine, one operation is one boot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BootBenchmark {
+
+    private static final int MAX_BOOT_FRAMES = 500;
+
+    // ROM character set, glyph of character c at CHARSET + 8 * c
+    private static final int CHARSET = 0x3C00;
+    // Copyright message on the last character row (third 2, row 7), (C) is character 0x7F
+    private static final int MESSAGE_ROW = 0x5000 + (7 << 5);
+    private static final String MESSAGE = "\u007f 1982 Sinclair Research Ltd";
+
+    @Param({"SANCHES", "CODINGRODENT"})
+    private CpuImplementation core;
+
+    private BenchMachine machine;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        machine = new BenchMachine(core);
+    }
+
+    @Benchmark
+    public int bootToCopyright(EmulationCounters counters) {
+        int frames = 0;
+        while (!copyrightShown(machine.getMemory())) {
+            if (++frames > MAX_BOOT_FRAMES) {
+                throw new IllegalStateException("48K ROM did not reach the copyright screen");
+            }
+            machine.runFrame();
+        }
+        counters.add(machine.getTStates(), machine.getInstructions());
+        return frames;
+    }
+
+    /**
+     * Every cell of the copyright message holds its ROM glyph. The RAM check fills the
+     * screen with 0x02 bytes before, which match none of them.
+     */
+    static boolean copyrightShown(Memory memory) {
+        // Last cell first, it is printed last
+        for (int column = MESSAGE.length() - 1; column >= 0; column--) {
+            int glyph = CHARSET + (MESSAGE.charAt(column) << 3);
+            for (int line = 0; line < 8; line++) {
+                if (memory.readByte(MESSAGE_ROW + (line << 8) + column) != memory.readByte(glyph + line)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
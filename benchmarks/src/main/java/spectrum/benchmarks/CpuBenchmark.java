@@ -0,0 +1,54 @@
+package spectrum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spectrum.hardware.machine.CpuImplementation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cores on the bare machine, one operation is one emulated frame (50 per second is real time).
+ * Both workload sets run through {@link spectrum.hardware.cpu.CPU#executeInstruction()}
+ * with the ULA contention of the 48K.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpuBenchmark {
+
+    @Param({"SANCHES", "CODINGRODENT"})
+    private CpuImplementation core;
+
+    @Param
+    private Workload workload;
+
+    private BenchMachine machine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        machine = new BenchMachine(core);
+        workload.setup(machine);
+    }
+
+    @Benchmark
+    public void frame(EmulationCounters counters) {
+        long tStates = machine.getTStates();
+        long instructions = machine.getInstructions();
+        machine.runFrame();
+        counters.add(machine.getTStates() - tStates, machine.getInstructions() - instructions);
+    }
+
+}
@@ -0,0 +1,95 @@
+package spectrum.benchmarks;
+
+import com.codingrodent.microprocessor.z80.Z80Core;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingStream;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import spectrum.hardware.machine.CpuImplementation;
+import z80core.Z80;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JMH profiler reporting the highest JIT tier reached by every decoder method of the
+ * benchmarked CPU core: 4 is C2, 1-3 are C1, 0 is still interpreted.
+ * <p>
+ * Compilations are taken from the {@code jdk.Compilation} JFR event in the benchmark fork.
+ * Decoders are the {@code decode*} and {@code extended*} methods of {@link Z80} and
+ * {@link Z80Core}; a method over the HotSpot {@code HugeMethodLimit} (8000 bytes of bytecode)
+ * is never compiled and stays at 0.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar CpuBenchmark -prof spectrum.benchmarks.DecoderCompilationProfiler
+ * </pre>
+ */
+public class DecoderCompilationProfiler implements InternalProfiler {
+
+    private final Map<String, Integer> levels = new ConcurrentHashMap<>();
+    private final RecordingStream stream;
+
+    public DecoderCompilationProfiler() {
+        stream = new RecordingStream();
+        stream.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+        stream.onEvent("jdk.Compilation", this::compiled);
+        stream.startAsync();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Highest JIT tier of the Z80 decoder methods (4 = C2)";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        // recording since the fork started
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        List<Result> results = new ArrayList<>();
+        String core = benchmarkParams.getParamsKeys().contains("core") ? benchmarkParams.getParam("core") : null;
+        for (Class<?> decoder : decoders(core)) {
+            for (Method method : decoder.getDeclaredMethods()) {
+                String name = method.getName();
+                if (name.startsWith("decode") || name.startsWith("extended")) {
+                    String key = decoder.getName() + "." + name;
+                    results.add(new ScalarResult("jit." + decoder.getSimpleName() + "." + name,
+                            levels.getOrDefault(key, 0), "tier", AggregationPolicy.MAX));
+                }
+            }
+        }
+        return results;
+    }
+
+    private void compiled(RecordedEvent event) {
+        if (!event.getBoolean("succeded")) {
+            return;
+        }
+        RecordedMethod method = event.getValue("method");
+        String type = method.getType().getName();
+        if (type.equals(Z80.class.getName()) || type.equals(Z80Core.class.getName())) {
+            levels.merge(type + "." + method.getName(), event.getInt("compileLevel"), Math::max);
+        }
+    }
+
+    private static List<Class<?>> decoders(String core) {
+        if (core == null) {
+            return List.of(Z80.class, Z80Core.class);
+        }
+        return CpuImplementation.valueOf(core) == CpuImplementation.SANCHES ? List.of(Z80.class) : List.of(Z80Core.class);
+    }
+
+}
@@ -0,0 +1,33 @@
+package spectrum.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Emulated work per benchmark, reported by JMH as rates next to the primary score:
+ * T-states per second (emulated clock) and instructions per second.
+ * {@link BenchmarkMain} turns them into emulated MHz and ns per instruction.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class EmulationCounters {
+
+    // Field names are the JMH result labels, see BenchmarkMain
+    public long tStates;
+    public long instructions;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        tStates = 0;
+        instructions = 0;
+    }
+
+    void add(long tStates, long instructions) {
+        this.tStates += tStates;
+        this.instructions += instructions;
+    }
+
+}
@@ -0,0 +1,120 @@
+package spectrum.benchmarks;
+
+import spectrum.hardware.cpu.zex.CpmImage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Programs run by {@link CpuBenchmark}, each sets up a {@link BenchMachine} to loop forever.
+ */
+public enum Workload {
+
+    /**
+     * zexdoc, documented flags, from the start of its test list.
+     */
+    ZEXDOC {
+        @Override
+        void setup(BenchMachine machine) {
+            loadCpm(machine, "/tests/zexdoc.com");
+        }
+    },
+
+    /**
+     * zexall, all flags, from the start of its test list.
+     */
+    ZEXALL {
+        @Override
+        void setup(BenchMachine machine) {
+            loadCpm(machine, "/tests/zexall.com");
+        }
+    },
+
+    /**
+     * LDIR block copy, code and data in uncontended RAM.
+     */
+    LDIR {
+        @Override
+        void setup(BenchMachine machine) {
+            ldir(machine, 0x8000, 0x9000, 0x9800);
+        }
+    },
+
+    /**
+     * The same LDIR copy in contended RAM (0x4000-0x7FFF), every access pays the ULA contention.
+     */
+    LDIR_CONTENDED {
+        @Override
+        void setup(BenchMachine machine) {
+            ldir(machine, 0x7000, 0x6000, 0x6800);
+        }
+    },
+
+    /**
+     * EI/HALT loop with an IM 2 handler, one interrupt per frame, the CPU mostly halted.
+     */
+    HALT_LOOP {
+        @Override
+        void setup(BenchMachine machine) {
+            // Vector table 0x8100-0x8200 filled with 0x82, any bus value reads 0x8282
+            for (int address = 0x8100; address <= 0x8200; address++) {
+                machine.poke(address, 0x82);
+            }
+            machine.poke(0x8282,
+                    0xFB,             // EI
+                    0xED, 0x4D);      // RETI
+            machine.poke(0x8000,
+                    0xF3,             // DI
+                    0xED, 0x5E,       // IM 2
+                    0x3E, 0x81,       // LD A,0x81
+                    0xED, 0x47,       // LD I,A
+                    0xFB,             // EI
+                    0x76,             // loop: HALT
+                    0x18, 0xFD);      // JR loop
+            start(machine, 0x8000);
+        }
+    };
+
+    private static final int LDIR_LENGTH = 0x0800;
+    private static final int STACK = 0xFF00;
+
+    abstract void setup(BenchMachine machine);
+
+    private static void ldir(BenchMachine machine, int code, int source, int target) {
+        machine.poke(code,
+                0x21, source & 0xFF, source >> 8,              // loop: LD HL,source
+                0x11, target & 0xFF, target >> 8,              // LD DE,target
+                0x01, LDIR_LENGTH & 0xFF, LDIR_LENGTH >> 8,    // LD BC,length
+                0xED, 0xB0,                                    // LDIR
+                0x18, 0xF3);                                   // JR loop
+        start(machine, code);
+    }
+
+    /**
+     * CP/M program in the ROM area as a {@link CpmImage}: BDOS is not trapped (no console output),
+     * warm boot at 0x0000 restarts the program.
+     */
+    private static void loadCpm(BenchMachine machine, String resource) {
+        machine.loadRom(CpmImage.build(readResource(resource),
+                0xC3, CpmImage.ORIGIN & 0xFF, CpmImage.ORIGIN >> 8)); // JP ORIGIN
+        start(machine, CpmImage.ORIGIN);
+    }
+
+    private static void start(BenchMachine machine, int pc) {
+        machine.getCpu().setRegSP(STACK);
+        machine.getCpu().setRegPC(pc);
+    }
+
+    private static byte[] readResource(String resource) {
+        try (InputStream in = Workload.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package spectrum.hardware;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import spectrum.hardware.cpu.CPU;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory;
+import spectrum.hardware.sound.mixer.WavFileSink;
+
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Headless facade over {@link SpectrumEmulator}.
+ * <p>
+ * Builds the machine from {@link MachineSettings} without a video driver,
+ * without audio lines and without JavaFX. Audio can be recorded to a WAV file
+ * with {@link #recordAudio(Path)}. Frames are executed on the caller
+ * thread as fast as the host allows: no spin-wait pacing, no real-time throttling.
+ * Every instance owns its own machine context, so many of them can run in
+ * parallel in one JVM, one per thread.
+ */
+@Slf4j
+public class HeadlessSpectrum {
+
+    @Getter
+    private final SpectrumEmulator emulator;
+
+    public HeadlessSpectrum(MachineSettings machineSettings) {
+        this.emulator = new SpectrumEmulator(machineSettings);
+        emulator.init();
+        // No video driver, no opened audio lines
+        emulator.getVideo().setVideoDriver(null);
+        emulator.getVideo().reset();
+        emulator.getCPU().reset();
+    }
+
+    /**
+     * Execute the given number of frames, unthrottled.
+     *
+     * @param frames number of frames to execute
+     * @return this instance
+     */
+    public HeadlessSpectrum runFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            emulator.executeFrame();
+        }
+        return this;
+    }
+
+    /**
+     * Execute frames until the condition is met. The condition is checked after every frame.
+     *
+     * @param condition stop condition
+     * @return number of executed frames
+     */
+    public long runUntil(Predicate<HeadlessSpectrum> condition) {
+        return runUntil(condition, Long.MAX_VALUE);
+    }
+
+    /**
+     * Execute frames until the condition is met or the frame limit is reached.
+     * The condition is checked after every frame.
+     *
+     * @param condition stop condition
+     * @param maxFrames maximum number of frames to execute
+     * @return number of executed frames, or -1 if the limit was reached first
+     */
+    public long runUntil(Predicate<HeadlessSpectrum> condition, long maxFrames) {
+        long frames = 0;
+        while (frames < maxFrames) {
+            emulator.executeFrame();
+            frames++;
+            if (condition.test(this)) {
+                return frames;
+            }
+        }
+        log.debug("Condition not met in {} frames", maxFrames);
+        return -1;
+    }
+
+    /**
+     * Record the mixed beeper and AY output to a WAV file, at emulation speed.
+     * The file is complete after {@link #stopAudio()}.
+     *
+     * @param wavFile file to write
+     * @return this instance
+     */
+    public HeadlessSpectrum recordAudio(Path wavFile) {
+        emulator.getAudioMixer().open(new WavFileSink(wavFile));
+        emulator.getSound().open();
+        emulator.getAy38912().open();
+        return this;
+    }
+
+    /**
+     * Stop audio output and finish the WAV file, if any.
+     */
+    public void stopAudio() {
+        emulator.getSound().close();
+        emulator.getAy38912().close();
+        emulator.getAudioMixer().close();
+    }
+
+    /**
+     * Frame buffer of Spectrum color indices (0-15), see {@link spectrum.hardware.video.Video#getFrameBuffer()}.
+     * The array is live and is overwritten by the next frame.
+     */
+    public int[] getFrameBuffer() {
+        return emulator.getVideo().getFrameBuffer();
+    }
+
+    public Memory getMemory() {
+        return emulator.getMemory();
+    }
+
+    public CPU getCpu() {
+        return emulator.getCPU();
+    }
+
+    public long getFrames() {
+        return emulator.getFrames();
+    }
+
+}
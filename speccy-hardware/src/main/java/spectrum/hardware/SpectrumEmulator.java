@@ -21,6 +21,8 @@ import spectrum.hardware.memory.Memory;
 import spectrum.hardware.sound.BeeperImpl;
 import spectrum.hardware.sound.Sound;
 import spectrum.hardware.sound.ay.AY38912;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.sound.mixer.AudioPostProcessor;
 import spectrum.hardware.tape.CassetteDeckImpl;
 import spectrum.hardware.ula.ClockListener;
 import spectrum.hardware.ula.InPortListener;
@@ -47,8 +49,9 @@ import static spectrum.hardware.factory.MemoryFactory.createMemory;
 @Getter
 public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
 
-    // ZXCore-lib clock support
-    SpectrumClock clock = SpectrumClock.INSTANCE;
+    // Per-instance machine context (ZXCore-lib clock support, settings, provider)
+    MachineContext machineContext;
+    SpectrumClock clock;
 
     CPU cpu;
     Memory memory;
@@ -56,6 +59,8 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
     Keyboard keyboard;
     Sound sound;
     Sound ay38912;
+    // Single audio line shared by all sound sources
+    AudioMixer audioMixer;
     spectrum.hardware.ula.Ula ula;
     CassetteDeckImpl cassetteDeck;
     Kempston kempston;
@@ -74,7 +79,8 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
     private volatile boolean hold = false;
     private volatile long frameCounter = 0;
 
-    private static final long FRAME_TIME_NS = 16666666; // ~60 FPS
+    // Real-time pacing of the emulation loop
+    private FramePacer framePacer;
 
     private final Map<Integer, AddressHookListener> addressHookListeners = new ConcurrentHashMap<>();
     private final Queue<Runnable> contextsTasks = new ConcurrentLinkedQueue<>();
@@ -84,14 +90,20 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
 
 
     public SpectrumEmulator() {
-        machineSettings = spectrum.hardware.machine.MachineSettings
+        this(spectrum.hardware.machine.MachineSettings
                 .ofDefault(CpuImplementation.SANCHES)
-                .setMachineType(MachineTypes.SPECTRUM128K);
+                .setMachineType(MachineTypes.SPECTRUM128K));
+    }
+
+    public SpectrumEmulator(MachineSettings machineSettings) {
+        this.machineSettings = machineSettings;
     }
 
     public void init() {
 
-        SpectrumClock.INSTANCE.setSpectrumModel(machineSettings.getMachineType());
+        this.machineContext = new MachineContext(machineSettings, this);
+        this.clock = machineContext.getClock();
+        this.framePacer = new FramePacer(machineSettings.getMachineType());
 
         this.memory = createMemory(machineSettings);
         this.video = new ScanlineVideoImpl(null, memory, machineSettings);
@@ -100,18 +112,25 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
         devices.add(keyboard);
         this.keyboard.init();
 
-        this.ula = new UlaImpl(memory, machineSettings);
+        this.ula = new UlaImpl(memory, machineContext);
 
         this.ula.addPortListener(0xfd, memory); //  0x7ffd Bank switching
         this.ula.addPortListener(0xfe, keyboard); // keyboard
         this.ula.addPortListener(0xfe, video); // Border color
 
-        this.sound = new BeeperImpl(machineSettings); // Sound Beeper
+        int sampleRate = machineSettings.getAudioSampleRate() > 0
+                ? machineSettings.getAudioSampleRate() : Sound.SAMPLE_RATE;
+        this.audioMixer = new AudioMixer(sampleRate);
+        if (machineSettings.isAudioPostProcessing()) {
+            audioMixer.setPostProcessor(new AudioPostProcessor(sampleRate));
+        }
+
+        this.sound = new BeeperImpl(machineSettings, audioMixer); // Sound Beeper
         devices.add(sound);
         this.ula.addPortListener(0xfe, sound); // Sound
         this.ula.addClockListener(sound);
 
-        this.ay38912 = new AY38912(machineSettings); // Sound AY-3-8912
+        this.ay38912 = new AY38912(machineSettings, audioMixer); // Sound AY-3-8912
         devices.add(ay38912);
         this.ula.addPortListener(0xfd, ay38912);
         this.ula.addPortListener(0xfd, (InPortListener) ay38912);
@@ -123,6 +142,7 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
         this.ula.addPortListener(0xfe, (OutPortListener) cassetteDeck); // cassette deck OUT
         if (video instanceof ClockListener videoClock) {
             this.ula.addClockListener(videoClock);
+            this.ula.addScreenMemoryListener(videoClock); // Catch-up rendering before screen writes
         }
         if (cassetteDeck instanceof ClockListener cassetteDeckClock) {
             this.ula.addClockListener(cassetteDeckClock);
@@ -138,13 +158,15 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
         // Disk controller
         diskController = createDiskController(machineSettings, ula);
         if (diskController != null) {
-            diskController.setFloppySoundEngine(new FloppySoundEngineImpl(sound));
+            diskController.setFloppySoundEngine(new FloppySoundEngineImpl(audioMixer));
             devices.add(diskController);
         }
 
         cpu = createCPU(machineSettings, ula, this);
 
-        Machine.setHardwareProvider(this);
+        if (machineSettings.isAudioSync()) {
+            framePacer.setAudioFillLevel(sound::getBufferFill);
+        }
 
     }
 
@@ -185,6 +207,7 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
         cpu.reset();
 
         // Start sound emulation
+        audioMixer.open();
         sound.open();
         ay38912.init();
         ay38912.open();
@@ -208,6 +231,8 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
         video.close();
         ula.reset();
         sound.close();
+        ay38912.close();
+        audioMixer.close();
         cassetteDeck.close();
         stopEmulationThread();
         log.info("Stopping emulation");
@@ -247,20 +272,20 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
 
     void emulationLoop() {
         log.info("Starting emulation thread");
-        long lastFrameTime = System.nanoTime();
+        framePacer.resync();
 
         while (running) {
             if (!paused) {
                 hold = false;
-                long currentTime = System.nanoTime();
-                long deltaTime = currentTime - lastFrameTime;
-                if (deltaTime >= FRAME_TIME_NS || speedUpMode) {
-                    executeFrame();
+                executeFrame();
+                if (speedUpMode) {
+                    framePacer.resync();
                 } else {
-                    Thread.onSpinWait();
+                    framePacer.awaitNextFrame();
                 }
             } else {
                 hold = true;
+                framePacer.resync();
                 try {
                     Thread.sleep(10);
                 } catch (InterruptedException e) {
@@ -289,7 +314,7 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
     /**
      * Emulates one frame of the Spectrum
      */
-    private void executeFrame() {
+    void executeFrame() {
 
         long executedCycles = 0;
         while (executedCycles < machineSettings.getMachineType().tstatesFrame) {
@@ -305,13 +330,17 @@ public class SpectrumEmulator implements NotifyOps, HardwareProvider, Emulator {
 
             debugManager.postExecuteCheck(this);
         }
+        // Scheduled devices catch up with the last T-states of the frame
+        ula.syncClockListeners();
         // Render frame by driver
         video.endFrame();
         ula.requestInterrupt();
         clock.endFrame();
+        // AY frame end also closes the register capture frame, in speed-up too
+        ay38912.endFrame();
         if (!speedUpMode) {
             sound.endFrame();
-            ay38912.endFrame();
+            audioMixer.endFrame();
         }
         frameCounter++;
         runExternalTasks();
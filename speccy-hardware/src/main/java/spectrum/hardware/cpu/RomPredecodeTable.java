@@ -0,0 +1,88 @@
+package spectrum.hardware.cpu;
+
+import spectrum.hardware.memory.Memory;
+import spectrum.hardware.memory.RomListener;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Predecoded ROM instructions for the SANCHES core, a table per ROM page (48K ROM,
+ * 128K ROMs 0 and 1, TR-DOS ROM) and an entry per start address.
+ * <p>
+ * An entry holds the opcode, which selects the decode handler, up to three following
+ * instruction bytes, the instruction length and the T-states of its opcode and operand
+ * reads. ROM at 0x0000-0x3FFF is never contended, so these T-states are fixed and an
+ * entry charges them at once instead of doing the reads. Entries are recorded on the
+ * first execution of an instruction and dropped when its page is loaded or written;
+ * paging only selects another table.
+ */
+public class RomPredecodeTable implements RomListener {
+
+    // No instruction recorded at the address
+    public static final long NONE = 0;
+
+    private final Memory memory;
+    private final Map<byte[], long[]> tables = new IdentityHashMap<>();
+    // Table of the page mapped at 0x0000, null when no page is mapped
+    private long[] current;
+
+    public RomPredecodeTable(Memory memory) {
+        this.memory = memory;
+        memory.setRomListener(this);
+        romPaged();
+    }
+
+    /**
+     * @return entries of the page mapped at 0x0000, indexed by address; null when no page is mapped
+     */
+    public long[] getCurrent() {
+        return current;
+    }
+
+    public static long entry(int opcode, int operands, int length, int tStates) {
+        return (opcode & 0xFF) | (long) (operands & 0xFFFFFF) << 8 | (long) length << 32 | (long) tStates << 40;
+    }
+
+    public static int opcode(long entry) {
+        return (int) entry & 0xFF;
+    }
+
+    public static int operands(long entry) {
+        return (int) entry >>> 8;
+    }
+
+    public static int length(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int tStates(long entry) {
+        return (int) (entry >>> 40);
+    }
+
+    @Override
+    public void romPaged() {
+        byte[] page = memory.getRomPage();
+        current = page == null ? null : tables.computeIfAbsent(page, p -> new long[Memory.ROM_SIZE]);
+    }
+
+    @Override
+    public void romLoaded(byte[] page) {
+        long[] table = tables.get(page);
+        if (table != null) {
+            Arrays.fill(table, NONE);
+        }
+    }
+
+    @Override
+    public void romWritten(int address) {
+        // Instructions are at most 4 bytes long
+        if (current != null) {
+            for (int start = Math.max(address - 3, 0); start <= address; start++) {
+                current[start] = NONE;
+            }
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package spectrum.hardware.cpu;
 
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.memory.Memory;
 import spectrum.hardware.snapshot.CPUSnapShot;
 import spectrum.hardware.snapshot.mapper.CPUSnapShotMapper;
 import spectrum.hardware.ula.Ula;
@@ -11,8 +12,22 @@ import z80core.Z80;
 @Slf4j
 public class Z80CoreAdapter extends Z80 implements spectrum.hardware.cpu.CPU {
 
+    private final Ula ula;
+    // Predecoded ROM instructions, null when disabled
+    private final RomPredecodeTable romTable;
+
     public Z80CoreAdapter(Ula ula, NotifyOps notify) {
-        super(ula, notify);
+        this(ula, notify, false);
+    }
+
+    public Z80CoreAdapter(Ula ula, NotifyOps notify, boolean romPredecode) {
+        super(ula, notify, ula.getMachineContext().getClock());
+        this.ula = ula;
+        this.romTable = romPredecode ? new RomPredecodeTable(ula.getMemory()) : null;
+    }
+
+    RomPredecodeTable getRomTable() {
+        return romTable;
     }
 
     @Override
@@ -32,17 +47,14 @@ public class Z80CoreAdapter extends Z80 implements spectrum.hardware.cpu.CPU {
     protected void execute() {
 
         if (prefixOpcode == 0) {
-            int opCode = MemIoImpl.fetchOpcode(regPC);
-            regR++;
-
-            if (breakpointAt.get(regPC)) {
-                opCode = NotifyImpl.breakpoint(regPC, opCode);
-            }
-
-            if (!halted) {
-                regPC = (regPC + 1) & 0xffff;
-                flagQ = pendingEI = false;
-                decodeOpcode(opCode);
+            long[] rom = romTable != null && regPC <= Memory.ROM_END && !halted && !breakpointAt.get(regPC)
+                    ? romTable.getCurrent() : null;
+            if (rom == null) {
+                fetchAndDecode();
+            } else if (rom[regPC] != RomPredecodeTable.NONE) {
+                decodeEntry(rom[regPC]);
+            } else {
+                recordEntry();
             }
         } else {
             int opCode = prefixOpcode;
@@ -68,6 +80,73 @@ public class Z80CoreAdapter extends Z80 implements spectrum.hardware.cpu.CPU {
 
     }
 
+    private void fetchAndDecode() {
+        int opCode = MemIoImpl.fetchOpcode(regPC);
+        regR++;
+
+        if (breakpointAt.get(regPC)) {
+            opCode = NotifyImpl.breakpoint(regPC, opCode);
+        }
+
+        if (!halted) {
+            regPC = (regPC + 1) & 0xffff;
+            flagQ = pendingEI = false;
+            decodeOpcode(opCode);
+        }
+    }
+
+    // Instruction from its table entry: the stream T-states at once, then the operands from the entry
+    private void decodeEntry(long entry) {
+        ula.addTStates(RomPredecodeTable.tStates(entry));
+        regR++;
+        regPC = (regPC + 1) & 0xffff;
+        flagQ = pendingEI = false;
+        prefetchedBytes = RomPredecodeTable.operands(entry);
+        prefetchedCount = RomPredecodeTable.length(entry) - 1;
+        decodeOpcode(RomPredecodeTable.opcode(entry));
+        prefetchedCount = 0;
+    }
+
+    // Instruction read on the bus, its entry stored when replaying it is exact
+    private void recordEntry() {
+        int pc = regPC;
+        long start = MemIoImpl.gettStates();
+        // An address hook may page another ROM in before the opcode is read
+        int opCode = MemIoImpl.fetchOpcode(pc);
+        int opCodeTStates = (int) (MemIoImpl.gettStates() - start);
+        long[] rom = romTable.getCurrent();
+        regR++;
+        regPC = (pc + 1) & 0xffff;
+        flagQ = pendingEI = false;
+
+        recordingStream = true;
+        recordedBytes = recordedCount = recordedTStates = 0;
+        decodeOpcode(opCode);
+        recordingStream = false;
+
+        if (rom != null && rom == romTable.getCurrent() && isReplayable(pc, opCode)) {
+            rom[pc] = RomPredecodeTable.entry(opCode, recordedBytes, recordedCount + 1,
+                    opCodeTStates + recordedTStates);
+        }
+    }
+
+    // Whole instruction in the same ROM, no hook or breakpoint on its bytes, and not written by itself
+    private boolean isReplayable(int pc, int opCode) {
+        if (recordedCount > 3 || pc + recordedCount > Memory.ROM_END) {
+            return false;
+        }
+        Memory memory = ula.getMemory();
+        for (int i = 0; i <= recordedCount; i++) {
+            int address = pc + i;
+            int value = i == 0 ? opCode : (recordedBytes >>> ((i - 1) << 3)) & 0xff;
+            if (ula.isAddressHooked(address) || breakpointAt.get(address)
+                    || (memory.readByte(address) & 0xff) != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void init() {
         reset();
@@ -0,0 +1,47 @@
+package spectrum.hardware.cpu.zex;
+
+import spectrum.hardware.memory.Memory;
+
+/**
+ * 16K ROM image running a CP/M program such as zexdoc/zexall on a 48K machine.
+ * <p>
+ * The program is placed at 0x0100 with the entry points zex needs patched:
+ * BDOS (0x0005) is a RET, the word at 0x0006 points to the top of the TPA, where
+ * zex sets its stack, and the frame interrupt (RST 0x38), which zex enables between
+ * test vectors, returns at once. The warm boot code at 0x0000 is chosen by the caller.
+ */
+public final class CpmImage {
+
+    public static final int ORIGIN = 0x0100;
+    public static final int WARM_BOOT = 0x0000;
+    public static final int BDOS = 0x0005;
+    public static final int INTERRUPT = 0x0038;
+    public static final int TPA_TOP = 0xF000;
+
+    private CpmImage() {
+    }
+
+    /**
+     * Build the ROM image.
+     *
+     * @param program  CP/M program, loaded at {@link #ORIGIN}
+     * @param warmBoot code placed at {@link #WARM_BOOT}
+     */
+    public static byte[] build(byte[] program, int... warmBoot) {
+        if (ORIGIN + program.length > Memory.ROM_SIZE) {
+            throw new IllegalArgumentException("Program does not fit below RAM");
+        }
+        byte[] image = new byte[Memory.ROM_SIZE];
+        System.arraycopy(program, 0, image, ORIGIN, program.length);
+        for (int i = 0; i < warmBoot.length; i++) {
+            image[WARM_BOOT + i] = (byte) warmBoot[i];
+        }
+        image[BDOS] = (byte) 0xC9; // RET
+        image[BDOS + 1] = (byte) TPA_TOP;
+        image[BDOS + 2] = (byte) (TPA_TOP >> 8);
+        image[INTERRUPT] = (byte) 0xFB; // EI
+        image[INTERRUPT + 1] = (byte) 0xC9; // RET
+        return image;
+    }
+
+}
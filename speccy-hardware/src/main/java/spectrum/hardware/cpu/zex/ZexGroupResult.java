@@ -0,0 +1,26 @@
+package spectrum.hardware.cpu.zex;
+
+import lombok.Value;
+
+/**
+ * Outcome of one zexdoc/zexall test group.
+ */
+@Value
+public class ZexGroupResult {
+
+    int index;
+    String name;
+    boolean passed;
+    // Console output of the group, the CRC mismatch on failure
+    String output;
+    long tStates;
+    long nanos;
+
+    /**
+     * Emulated clock achieved by this group.
+     */
+    public double getMhz() {
+        return nanos == 0 ? 0 : tStates * 1e3 / nanos;
+    }
+
+}
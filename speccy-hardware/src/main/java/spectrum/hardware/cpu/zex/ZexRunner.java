@@ -0,0 +1,216 @@
+package spectrum.hardware.cpu.zex;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import machine.MachineTypes;
+import spectrum.hardware.HeadlessSpectrum;
+import spectrum.hardware.SpectrumEmulator;
+import spectrum.hardware.cpu.CPU;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory;
+import spectrum.hardware.memory.Memory64KImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import static spectrum.hardware.cpu.zex.CpmImage.*;
+import static spectrum.hardware.util.EmulatorUtils.loadFile;
+
+/**
+ * Headless zexdoc/zexall runner, one emulator instance per test group.
+ * <p>
+ * The CP/M program is loaded at 0x0100 of the 48K ROM area as a {@link CpmImage}:
+ * BDOS (0x0005) is trapped for console output and warm boot (0x0000) is a HALT
+ * trapped as the end of the run. zex walks a table of test
+ * descriptors; every group gets its own copy of the image with the table cut down
+ * to that one test, so the groups are independent and run in parallel on a
+ * {@link ForkJoinPool}, each on its own {@link HeadlessSpectrum}.
+ */
+@Slf4j
+public class ZexRunner {
+
+    // LD HL,tests in the zex startup code
+    private static final int TABLE_LOAD = 0x011F;
+    private static final int LD_HL_NN = 0x21;
+    // Descriptor: flag mask, base, increment and shift vectors, CRC, then the '$'-terminated name
+    private static final int NAME_OFFSET = 1 + 20 + 20 + 20 + 4;
+    // Generous limit for the longest group (zexall aluop registers, about 20 billion T-states)
+    private static final long DEFAULT_MAX_FRAMES = 1_000_000;
+
+    private final byte[] image;
+    private final int table;
+    @Getter
+    private final int groupCount;
+    private final CpuImplementation core;
+    // Predecoded ROM instructions on the SANCHES core, the zex code runs in the ROM area
+    @Setter
+    private boolean romPredecode = true;
+
+    public ZexRunner(byte[] program, CpuImplementation core) {
+        this.core = core;
+        this.image = CpmImage.build(program, 0x76); // HALT
+
+        if ((image[TABLE_LOAD] & 0xFF) != LD_HL_NN) {
+            throw new IllegalArgumentException("Not a zexdoc/zexall image");
+        }
+        this.table = word(TABLE_LOAD + 1);
+        int count = 0;
+        while (word(table + count * 2) != 0) {
+            count++;
+        }
+        this.groupCount = count;
+    }
+
+    public static ZexRunner load(String file, CpuImplementation core) throws IOException {
+        return new ZexRunner(loadFile(file), core);
+    }
+
+    /**
+     * Test group name, as printed by zex.
+     */
+    public String getGroupName(int group) {
+        StringBuilder name = new StringBuilder();
+        for (int address = word(table + group * 2) + NAME_OFFSET; image[address] != '$'; address++) {
+            name.append((char) image[address]);
+        }
+        // Strip the dot leader
+        return name.toString().replaceAll("\\.+$", "").trim();
+    }
+
+    /**
+     * Run every group on the pool.
+     */
+    public List<ZexGroupResult> runAll(ForkJoinPool pool) {
+        return run(pool, IntStream.range(0, groupCount).boxed().toList());
+    }
+
+    /**
+     * Run the given groups on the pool, one task and one emulator per group.
+     *
+     * @return results in the order of the groups
+     */
+    public List<ZexGroupResult> run(ForkJoinPool pool, List<Integer> groups) {
+        List<ForkJoinTask<ZexGroupResult>> tasks = new ArrayList<>();
+        for (int group : groups) {
+            tasks.add(pool.submit(() -> runGroup(group, DEFAULT_MAX_FRAMES)));
+        }
+        return tasks.stream().map(ForkJoinTask::join).toList();
+    }
+
+    /**
+     * Run one group on a new emulator, on the calling thread.
+     *
+     * @param group     group index
+     * @param maxFrames frame limit, the group fails when it is reached
+     */
+    public ZexGroupResult runGroup(int group, long maxFrames) {
+        long start = System.nanoTime();
+        MachineSettings settings = MachineSettings.ofDefault(core)
+                .setMachineType(MachineTypes.SPECTRUM48K)
+                .setEnableDiskController(false)
+                .setRomPredecode(romPredecode);
+        HeadlessSpectrum spectrum = new HeadlessSpectrum(settings);
+        SpectrumEmulator emulator = spectrum.getEmulator();
+        Memory64KImpl memory = (Memory64KImpl) spectrum.getMemory();
+        memory.setRomWriteProtected(false);
+        memory.loadROM(groupImage(group));
+
+        CPU cpu = spectrum.getCpu();
+        cpu.setRegPC(ORIGIN);
+        StringBuilder output = new StringBuilder();
+        boolean[] done = new boolean[1];
+        emulator.addBreakPointListener(BDOS, (address, opcode) -> {
+            bdos(cpu, memory, output);
+            return opcode;
+        });
+        emulator.addBreakPointListener(WARM_BOOT, (address, opcode) -> {
+            done[0] = true;
+            return opcode;
+        });
+
+        long frames = spectrum.runUntil(s -> done[0], maxFrames);
+        String text = output.toString().trim();
+        boolean passed = frames > 0 && text.contains("OK") && !text.contains("ERROR");
+        long tStates = spectrum.getFrames() * settings.getMachineType().tstatesFrame;
+        ZexGroupResult result = new ZexGroupResult(group, getGroupName(group), passed, text,
+                tStates, System.nanoTime() - start);
+        log.debug("Group {} {}: {}", group, result.getName(), passed ? "OK" : "FAILED");
+        return result;
+    }
+
+    private byte[] groupImage(int group) {
+        byte[] copy = image.clone();
+        int test = word(table + group * 2);
+        copy[table] = (byte) test;
+        copy[table + 1] = (byte) (test >> 8);
+        copy[table + 2] = 0;
+        copy[table + 3] = 0;
+        return copy;
+    }
+
+    private static void bdos(CPU cpu, Memory memory, StringBuilder output) {
+        switch (cpu.getRegBC() & 0xFF) {
+            case 0x02 -> output.append((char) (cpu.getRegDE() & 0xFF));
+            case 0x09 -> {
+                for (int address = cpu.getRegDE(); memory.readByte(address) != '$'; address++) {
+                    output.append((char) memory.readByte(address));
+                }
+            }
+            default -> {
+                // Other calls are not used by zex
+            }
+        }
+    }
+
+    private int word(int address) {
+        return (image[address] & 0xFF) | (image[address + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * Run all groups and print the report.
+     * <p>
+     * Arguments: program file (zexdoc.com or zexall.com), CPU core (default SANCHES),
+     * parallelism (default all processors).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ZexRunner <zexdoc.com|zexall.com> [core] [parallelism]");
+            System.exit(2);
+        }
+        String file = args[0];
+        CpuImplementation core = args.length > 1 ? CpuImplementation.valueOf(args[1]) : CpuImplementation.SANCHES;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ZexRunner runner = load(file, core);
+        long start = System.nanoTime();
+        List<ZexGroupResult> results;
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            results = runner.runAll(pool);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long tStates = 0;
+        int failed = 0;
+        for (ZexGroupResult result : results) {
+            System.out.printf("%3d %-32s %-6s %8.1f MHz%n", result.getIndex(), result.getName(),
+                    result.isPassed() ? "OK" : "FAILED", result.getMhz());
+            if (!result.isPassed()) {
+                System.out.println("    " + result.getOutput().replace("\n", "\n    "));
+                failed++;
+            }
+            tStates += result.getTStates();
+        }
+        System.out.printf("%s %s: %d groups, %d failed, %.1f s, %.1f MHz aggregate on %d threads%n",
+                file, core, results.size(), failed, nanos / 1e9, tStates * 1e3 / nanos, parallelism);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+}
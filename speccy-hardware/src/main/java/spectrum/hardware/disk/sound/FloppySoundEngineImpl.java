@@ -3,7 +3,8 @@ package spectrum.hardware.disk.sound;
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.disk.wd1793.ControllerState;
 import spectrum.hardware.disk.wd1793.sound.FloppySoundEngine;
-import spectrum.hardware.sound.Sound;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.sound.mixer.MixerChannel;
 
 import java.net.URL;
 
@@ -17,7 +18,9 @@ public final class FloppySoundEngineImpl implements FloppySoundEngine {
     // Мотор крутится 2 секунды после последней активности
     private static final long MOTOR_TIMEOUT_TSTATES = 2 * CPU_HZ;
 
-    private final Sound sound;
+    private static final int LOOP_CHANNEL_CAPACITY = 4096;
+
+    private final MixerChannel channel;
 
     private ControllerState lastState = ControllerState.IDLE;
     private long tStateAccum;
@@ -44,15 +47,16 @@ public final class FloppySoundEngineImpl implements FloppySoundEngine {
 
     private WavLoopPlayer loopPlayer;
 
-    public FloppySoundEngineImpl(Sound sound) {
-        this.sound = sound;
+    public FloppySoundEngineImpl(AudioMixer mixer) {
+        this.channel = mixer.addChannel("floppy");
         // Генерируем тяжелые данные один раз
         this.motorLoop = FloppyPcm.createMotorLoop();
         this.motorPos = 0;
 
         URL wavUrl = FloppyPcm.class.getResource("/sound/floppy-disk-drive-read-16.wav");
         if (wavUrl != null) {
-            this.loopPlayer = new WavLoopPlayer(wavUrl);
+            this.loopPlayer = new WavLoopPlayer(
+                    mixer.addChannel("floppy-loop", LOOP_CHANNEL_CAPACITY), mixer.getSampleRate(), wavUrl);
             log.info("Floppy sound initialized: {}", wavUrl);
         } else {
             log.warn("Floppy sound wav not found: /sound/floppy-disk-drive-read-16.wav");
@@ -212,7 +216,7 @@ public final class FloppySoundEngineImpl implements FloppySoundEngine {
             if (sample > 32767) sample = 32767;
             else if (sample < -32768) sample = -32768;
 
-            sound.write((short) sample);
+            channel.write((short) sample);
             sampleDebt--;
         }
     }
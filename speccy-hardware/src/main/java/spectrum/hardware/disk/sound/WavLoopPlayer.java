@@ -2,16 +2,30 @@ package spectrum.hardware.disk.sound;
 
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.disk.wd1793.sound.LoopPlayer;
+import spectrum.hardware.sound.mixer.MixerChannel;
 
 import javax.sound.sampled.*;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.net.URL;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loops wav files into a {@link MixerChannel}.
+ * <p>
+ * Files are decoded to 16-bit signed PCM on the player thread and resampled
+ * (nearest frame) to the mixer rate if needed.
+ */
 @Slf4j
 public final class WavLoopPlayer implements LoopPlayer, Runnable {
 
+    private static final int CHUNK_BYTES = 4096;
+    private static final long WAIT_NS = TimeUnit.MILLISECONDS.toNanos(2);
+
     private final URL[] wavUrls;
+    private final MixerChannel channel;
+    private final int sampleRate;
 
     private volatile boolean running = true;
     private volatile boolean playing = false;
@@ -19,11 +33,20 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
     private int currentIndex = -1;
 
     private AudioInputStream stream;
-    private SourceDataLine line;
+    // Source frames per output frame
+    private double step;
+    private double position;
 
     private final Object lock = new Object();
 
-    public WavLoopPlayer(URL... wavUrls) {
+    /**
+     * @param channel    mixer channel to play into
+     * @param sampleRate mixer sample rate
+     * @param wavUrls    wav files, selected by index
+     */
+    public WavLoopPlayer(MixerChannel channel, int sampleRate, URL... wavUrls) {
+        this.channel = channel;
+        this.sampleRate = sampleRate;
         this.wavUrls = wavUrls;
         Thread thread = new Thread(this, "wav-loop-player");
         thread.setDaemon(true);
@@ -42,9 +65,9 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
 
         synchronized (lock) {
             if (currentIndex != index) {
-                closeLine();
+                closeStream();
                 currentIndex = index;
-                openLine(wavUrls[index]);
+                openStream(wavUrls[index]);
             }
 
             playing = true;
@@ -62,7 +85,7 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
         // Just stop playback, don't terminate the thread
         synchronized (lock) {
             playing = false;
-            closeLine();
+            closeStream();
             currentIndex = -1;
         }
     }
@@ -75,15 +98,16 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
         running = false;
         synchronized (lock) {
             lock.notifyAll();
+            closeStream();
         }
-        closeLine();
     }
 
     @Override
     public void run() {
-        byte[] buffer = new byte[4096];
+        byte[] buffer = new byte[CHUNK_BYTES];
 
         while (running) {
+            boolean written;
             synchronized (lock) {
                 while (!playing && running) {
                     try {
@@ -93,44 +117,77 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
                         return;
                     }
                 }
+                written = running && fillChunk(buffer);
             }
-
-            if (!running || line == null || stream == null) {
-                continue;
+            if (!written) {
+                // Mixer channel is full, wait outside the lock
+                LockSupport.parkNanos(WAIT_NS);
             }
+        }
+    }
 
-            try {
-                int read = stream.read(buffer, 0, buffer.length);
-                if (read == -1) {
-                    // Loop back to the beginning
-                    reopenStream();
-                    continue;
-                }
-                if (playing) {
-                    line.write(buffer, 0, read);
-                }
-            } catch (Exception e) {
-                log.error("Error playing wav", e);
-                pause();
+    /**
+     * Decode one chunk into the channel if it has room.
+     *
+     * @return false if nothing was written
+     */
+    private boolean fillChunk(byte[] buffer) {
+        if (stream == null) {
+            return false;
+        }
+        try {
+            AudioFormat format = stream.getFormat();
+            int frameSize = format.getFrameSize();
+            int chunk = CHUNK_BYTES - CHUNK_BYTES % frameSize;
+            if (channel.free() < Math.ceil(chunk / frameSize / step)) {
+                return false;
             }
+            int read = stream.readNBytes(buffer, 0, chunk);
+            if (read <= 0) {
+                // Loop back to the beginning
+                reopenStream();
+                return true;
+            }
+            writeFrames(buffer, read / frameSize, format.getChannels());
+            return true;
+        } catch (Exception e) {
+            log.error("Error playing wav", e);
+            pause();
+            return false;
+        }
+    }
+
+    /**
+     * Resample decoded little-endian 16-bit frames into the channel.
+     */
+    private void writeFrames(byte[] buffer, int frames, int channels) {
+        int frameSize = channels * 2;
+        while (position < frames) {
+            int offset = (int) position * frameSize;
+            short left = (short) ((buffer[offset] & 0xFF) | (buffer[offset + 1] << 8));
+            short right = channels > 1
+                    ? (short) ((buffer[offset + 2] & 0xFF) | (buffer[offset + 3] << 8))
+                    : left;
+            channel.write(left, right);
+            position += step;
         }
+        position -= frames;
     }
 
-    private void openLine(URL wavUrl) {
+    private void openStream(URL wavUrl) {
         try {
             InputStream is = wavUrl.openStream();
             BufferedInputStream bis = new BufferedInputStream(is);
-            stream = AudioSystem.getAudioInputStream(bis);
-            AudioFormat format = stream.getFormat();
-
-            DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
-            line = (SourceDataLine) AudioSystem.getLine(info);
-            line.open(format);
-            line.start();
-            log.debug("Opened audio line for: {}", wavUrl);
+            AudioInputStream source = AudioSystem.getAudioInputStream(bis);
+            AudioFormat format = source.getFormat();
+            AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16,
+                    Math.min(2, format.getChannels()), true, false);
+            stream = AudioSystem.getAudioInputStream(pcm, source);
+            step = format.getSampleRate() / sampleRate;
+            position = 0;
+            log.debug("Opened wav {} ({}), mixed at {} Hz", wavUrl, format, sampleRate);
         } catch (Exception e) {
             log.error("Cannot open wav: {}", wavUrl, e);
-            line = null;
             stream = null;
         }
     }
@@ -139,35 +196,23 @@ public final class WavLoopPlayer implements LoopPlayer, Runnable {
         if (currentIndex < 0 || currentIndex >= wavUrls.length) {
             return;
         }
-        try {
-            if (stream != null) {
-                stream.close();
-            }
-            InputStream is = wavUrls[currentIndex].openStream();
-            BufferedInputStream bis = new BufferedInputStream(is);
-            stream = AudioSystem.getAudioInputStream(bis);
-        } catch (Exception e) {
-            log.error("Error reopening stream", e);
+        closeStream();
+        openStream(wavUrls[currentIndex]);
+        if (stream == null) {
             pause();
         }
     }
 
-    private void closeLine() {
+    private void closeStream() {
         try {
-            if (line != null) {
-                line.stop();
-                line.close();
-            }
             if (stream != null) {
                 stream.close();
             }
         } catch (Exception e) {
-            log.trace("Error closing line", e);
+            log.trace("Error closing stream", e);
         } finally {
-            line = null;
             stream = null;
         }
     }
 
 }
-
@@ -15,8 +15,8 @@ public class TRDOSControllerImpl implements AddressHookController, TRDOSControll
 
     public static final int TR_DOS_ENTRY_POINT_MASK = 0x3D00;
 
-    private static byte[] romData;
-    private static String trdosRomFilePath;
+    private byte[] romData;
+    private String trdosRomFilePath;
     private final MachineSettings machineSettings;
     private final Memory memory;
     private final DiskController diskController;
@@ -47,6 +47,12 @@ public class TRDOSControllerImpl implements AddressHookController, TRDOSControll
         trDOSSwitcher(address);
     }
 
+    // Entry points, and any RAM address to leave TR-DOS, whether the controller is enabled or not
+    @Override
+    public boolean isHooked(int address) {
+        return (address & 0xFF00) == TR_DOS_ENTRY_POINT_MASK || address > ROM_END;
+    }
+
     private void trDOSSwitcher(int address) {
         if (!machineSettings.isEnableDiskController()) {
             return;
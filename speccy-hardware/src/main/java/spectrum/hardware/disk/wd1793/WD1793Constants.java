@@ -226,6 +226,11 @@ public final class WD1793Constants {
      */
     public static final long TIMING_INDEX_PULSE = 14_000L;
 
+    /**
+     * Service interval in IDLE state (~20ms) - drive flush and sound engine updates
+     */
+    public static final long TIMING_IDLE_POLL = 70_000L;
+
     // ========== Track Limits ==========
 
     /**
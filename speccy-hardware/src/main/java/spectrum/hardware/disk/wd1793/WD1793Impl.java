@@ -182,6 +182,17 @@ public class WD1793Impl implements DiskController {
         }
     }
 
+    @Override
+    public long nextEventTStates(long tStates) {
+        return switch (currentState) {
+            case SEARCHING -> Math.max(nextEventTStates, tStates + 1);
+            case TRANSFERRING -> drq
+                    ? Math.max(drqSetTStates + TIMING_DRQ_TIMEOUT + 1, tStates + 1)
+                    : tStates + TIMING_BYTE_INTERVAL;
+            default -> tStates + TIMING_IDLE_POLL;
+        };
+    }
+
     private void processIdleState(long tStates) {
         for (VirtualDrive drive : drives) {
             drive.flush();
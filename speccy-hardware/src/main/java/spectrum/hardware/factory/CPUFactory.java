@@ -14,7 +14,7 @@ public class CPUFactory {
 
     public static CPU createCPU(MachineSettings machineSettings, Ula ula, NotifyOps notify) {
         if (machineSettings.getCpuImplementation() == CpuImplementation.SANCHES) {
-            return new Z80CoreAdapter(ula, notify);
+            return new Z80CoreAdapter(ula, notify, machineSettings.isRomPredecode());
         }
         if (machineSettings.getCpuImplementation() == CpuImplementation.CODINGRODENT) {
             return new Z80ProcessorAdapter(ula, notify);
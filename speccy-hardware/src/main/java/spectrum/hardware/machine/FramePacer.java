@@ -0,0 +1,134 @@
+package spectrum.hardware.machine;
+
+import lombok.Getter;
+import lombok.Setter;
+import machine.MachineTypes;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Real-time frame pacing for the emulation loop.
+ * <p>
+ * The frame period comes from the machine type ({@code tstatesFrame / clockFreq},
+ * 50.08 Hz on 48K). Frames are scheduled against absolute deadlines, so wake-up
+ * errors do not accumulate. The thread parks until shortly before the deadline
+ * and spins only for the last {@link #SPIN_NS}.
+ * <p>
+ * When an audio fill level source is set, the period is stretched or shortened by
+ * up to {@link #MAX_AUDIO_CORRECTION} to keep the audio line buffer at
+ * {@link #AUDIO_TARGET_FILL}: emulation then follows the sound card clock instead
+ * of the system clock, without drift, underruns or blocking writes.
+ */
+public class FramePacer {
+
+    // Final busy wait before the deadline, parkNanos is not more precise than this
+    static final long SPIN_NS = 200_000;
+    // Falling behind by more frames than that resyncs instead of catching up
+    static final int MAX_LAG_FRAMES = 3;
+
+    static final double AUDIO_TARGET_FILL = 0.5;
+    static final double MAX_AUDIO_CORRECTION = 0.05;
+    // Period correction per unit of fill level error
+    private static final double AUDIO_GAIN = 0.1;
+
+    @Getter
+    private final long framePeriodNs;
+
+    /**
+     * Audio buffer fill level source, 0..1, negative when unknown.
+     */
+    @Setter
+    private DoubleSupplier audioFillLevel;
+
+    private long deadline;
+    private boolean started;
+
+    // Statistics
+    @Getter
+    private volatile long frames;
+    @Getter
+    private volatile long overruns;
+    @Getter
+    private volatile long lastJitterNs;
+    @Getter
+    private volatile long maxJitterNs;
+    private volatile long totalJitterNs;
+
+    public FramePacer(MachineTypes machineType) {
+        this.framePeriodNs = Math.round(machineType.tstatesFrame * 1_000_000_000d / machineType.clockFreq);
+    }
+
+    /**
+     * Wait until the current frame's time slot is over.
+     * Called after every emulated frame.
+     */
+    public void awaitNextFrame() {
+        long now = System.nanoTime();
+        if (!started) {
+            started = true;
+            deadline = now;
+        }
+        deadline += currentPeriod();
+        long remaining = deadline - now;
+        if (remaining < 0) {
+            // Emulation of the frame took longer than its period
+            overruns++;
+            if (-remaining > framePeriodNs * MAX_LAG_FRAMES) {
+                deadline = now;
+            }
+            frames++;
+            return;
+        }
+        while (remaining > SPIN_NS) {
+            LockSupport.parkNanos(remaining - SPIN_NS);
+            remaining = deadline - System.nanoTime();
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+        long jitter = System.nanoTime() - deadline;
+        lastJitterNs = jitter;
+        maxJitterNs = Math.max(maxJitterNs, jitter);
+        totalJitterNs += jitter;
+        frames++;
+    }
+
+    /**
+     * Restart scheduling from now, e.g. after pause or speed-up.
+     */
+    public void resync() {
+        started = false;
+    }
+
+    /**
+     * Mean wake-up delay after the deadline, over paced (not overrun) frames.
+     */
+    public long getMeanJitterNs() {
+        long paced = frames - overruns;
+        return paced > 0 ? totalJitterNs / paced : 0;
+    }
+
+    public void resetStats() {
+        frames = 0;
+        overruns = 0;
+        lastJitterNs = 0;
+        maxJitterNs = 0;
+        totalJitterNs = 0;
+    }
+
+    long currentPeriod() {
+        if (audioFillLevel == null) {
+            return framePeriodNs;
+        }
+        double fill = audioFillLevel.getAsDouble();
+        if (fill < 0) {
+            return framePeriodNs;
+        }
+        // More queued audio than the target: slow down, less: speed up
+        double correction = Math.clamp((fill - AUDIO_TARGET_FILL) * AUDIO_GAIN,
+                -MAX_AUDIO_CORRECTION, MAX_AUDIO_CORRECTION);
+        return Math.round(framePeriodNs * (1 + correction));
+    }
+
+}
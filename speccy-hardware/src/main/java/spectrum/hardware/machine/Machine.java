@@ -8,6 +8,13 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+/**
+ * Registry of the machine currently shown by the UI.
+ * <p>
+ * Emulator instances do not register themselves here; hardware code gets its
+ * provider from {@link MachineContext}. Only the UI publishes the single
+ * machine it drives, so headless runs can host many machines per JVM.
+ */
 @Slf4j
 @UtilityClass
 public class Machine {
@@ -0,0 +1,36 @@
+package spectrum.hardware.machine;
+
+import lombok.Getter;
+import lombok.Setter;
+import machine.SpectrumClock;
+
+/**
+ * Per-machine context: settings, clock and hardware provider of one emulator instance.
+ * <p>
+ * Created by the emulator on init and handed to the ULA, CPU and devices,
+ * so no machine state is kept in static fields and several machines can run
+ * in one JVM, each on its own thread.
+ */
+@Getter
+public class MachineContext {
+
+    private final MachineSettings machineSettings;
+    private final SpectrumClock clock;
+
+    @Setter
+    private HardwareProvider hardwareProvider;
+
+    public MachineContext(MachineSettings machineSettings) {
+        this(machineSettings, null);
+    }
+
+    public MachineContext(MachineSettings machineSettings, HardwareProvider hardwareProvider) {
+        this.machineSettings = machineSettings;
+        this.hardwareProvider = hardwareProvider;
+        this.clock = new SpectrumClock();
+        if (machineSettings.getMachineType() != null) {
+            clock.setSpectrumModel(machineSettings.getMachineType());
+        }
+    }
+
+}
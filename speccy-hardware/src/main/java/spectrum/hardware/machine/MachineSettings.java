@@ -14,6 +14,16 @@ public class MachineSettings {
     private boolean ulaAddTStates;
     private MachineTypes machineType;
     private int audioSampleRate;
+    // AY emulation core, null is the sample-step core
+    private AyCoreTypes ayCoreType;
+    // Render AY output on register writes and frame end instead of on per-sample clock events
+    private boolean ayEventRendering;
+    // Pace emulation by the audio line buffer fill level instead of the system clock only
+    private boolean audioSync;
+    // Block post-processing (DC blocking, speaker filter, stereo width, gain) of the mixed output
+    private boolean audioPostProcessing;
+    // Run ROM instructions of the SANCHES core from predecoded tables
+    private boolean romPredecode;
     private boolean enableDiskController;
     private DiskControllerTypes diskControllerType;
     private String trDOSRomFilePath;
@@ -61,6 +71,11 @@ public class MachineSettings {
                 builder()
                 .machineType(MachineTypes.SPECTRUM48K)
                 .audioSampleRate(44100)
+                .audioSync(true)
+                .audioPostProcessing(true)
+                .ayCoreType(AyCoreTypes.CLOCK_EXACT)
+                .ayEventRendering(true)
+                .romPredecode(true)
                 .enableDiskController(true)
                 .ulaAddTStates(cpuImplementation.isUlaAddTStates())
                 .cpuImplementation(cpuImplementation)
@@ -76,4 +91,11 @@ public class MachineSettings {
         WD1793
     }
 
+    public enum AyCoreTypes {
+        // Generators stepped once per output sample
+        SAMPLE_STEP,
+        // Generators stepped at the AY clock, band-limited resampling
+        CLOCK_EXACT
+    }
+
 }
@@ -60,6 +60,51 @@ public interface Memory extends Device, OutPortListener {
         return address >= 0x4000 && address <= 0x7FFF;
     }
 
+    /**
+     * Address is in the bitmap/attributes area currently shown by the video.
+     */
+    default boolean isDisplayAddress(int address) {
+        return address >= SCREEN_RAM_START && address < SCREEN_RAM_START + SCREEN_RAM_SIZE;
+    }
+
+    /**
+     * Array holding the screen currently shown by the video (bitmap then attributes),
+     * starting at {@link #getDisplayOffset()}. The video reads it directly, without
+     * going through the CPU memory map. The array changes when the screen bank is switched.
+     */
+    byte[] getDisplayMemory();
+
+    /**
+     * Offset of the screen in {@link #getDisplayMemory()}.
+     */
+    default int getDisplayOffset() {
+        return SCREEN_RAM_START;
+    }
+
+    /**
+     * Observer notified when bytes of the displayed screen change.
+     * Memories without tracking ignore it.
+     */
+    default void setScreenWriteListener(ScreenWriteListener listener) {
+        // do nothing
+    }
+
+    /**
+     * Array holding the ROM page mapped at 0x0000, at offsets 0x0000-0x3FFF. The same array
+     * stays mapped until {@link RomListener#romPaged()}. Memories without pages return null.
+     */
+    default byte[] getRomPage() {
+        return null;
+    }
+
+    /**
+     * Observer notified when the ROM at 0x0000 is paged, loaded or written.
+     * Memories without pages ignore it.
+     */
+    default void setRomListener(RomListener listener) {
+        // do nothing
+    }
+
     default void outPort(int port, int value) {
         //do nothing
     }
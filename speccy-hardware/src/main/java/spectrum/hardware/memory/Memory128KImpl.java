@@ -1,6 +1,7 @@
 package spectrum.hardware.memory;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.machine.MachineSettings;
@@ -28,6 +29,11 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
     @Getter
     private boolean romWriteProtected = true;
 
+    @Setter
+    private ScreenWriteListener screenWriteListener;
+    @Setter
+    private RomListener romListener;
+
     public Memory128KImpl(MachineSettings machineSetting) {
         this.machineSettings = machineSetting;
     }
@@ -70,12 +76,42 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
             return;
         }
         int offset = address & 0x3FFF;// offset 16КБ
-        currentMapping[window][offset] = (byte) (value & 0xFF);
+        byte[] bank = currentMapping[window];
+        if (screenWriteListener != null && offset < SCREEN_RAM_SIZE
+                && bank == displayBank() && bank[offset] != (byte) value) {
+            screenWriteListener.screenWritten(offset);
+        }
+        bank[offset] = (byte) (value & 0xFF);
+    }
+
+    @Override
+    public boolean isDisplayAddress(int address) {
+        // Shown bank (5 or 7) can be paged at $4000 or $C000
+        return (address & 0x3FFF) < SCREEN_RAM_SIZE && currentMapping[(address >> 14) & 3] == displayBank();
+    }
+
+    @Override
+    public byte[] getRomPage() {
+        return currentMapping[0];
+    }
+
+    @Override
+    public byte[] getDisplayMemory() {
+        return displayBank();
+    }
+
+    @Override
+    public int getDisplayOffset() {
+        return 0;
+    }
+
+    private byte[] displayBank() {
+        return ramBanks[activeVideoBank];
     }
 
     @Override
     public byte[] getScreen() {
-        byte[] currentScreen = currentMapping[1];
+        byte[] currentScreen = displayBank();
         byte[] copy = new byte[SCREEN_RAM_SIZE];
         System.arraycopy(currentScreen, 0, copy, 0, SCREEN_RAM_SIZE);
         return copy;
@@ -108,6 +144,9 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
     public void loadROM(int bank, byte[] romData) {
         bank = bank & 1;
         System.arraycopy(romData, 0, romBanks[bank], 0, Math.min(romData.length, ROM_SIZE));
+        if (romListener != null) {
+            romListener.romLoaded(romBanks[bank]);
+        }
     }
 
     @Override
@@ -165,6 +204,9 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
         }
         prevRomBank = currentMapping[bank];
         currentMapping[bank] = data;
+        if (bank == 0 && romListener != null) {
+            romListener.romPaged();
+        }
     }
 
     @Override
@@ -172,6 +214,9 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
         if (prevRomBank != null) {
             currentMapping[bank] = prevRomBank;
             prevRomBank = null;
+            if (bank == 0 && romListener != null) {
+                romListener.romPaged();
+            }
         } else {
             log.warn("Attempt to unmap bank {} while no bank is mapped", bank);
         }
@@ -183,13 +228,25 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
         }
         lastConfiguration = value;
         // Bit 4: ROM selection
-        currentMapping[0] = romBanks[(value >> 4) & 1];
+        byte[] rom = romBanks[(value >> 4) & 1];
+        if (currentMapping[0] != rom) {
+            currentMapping[0] = rom;
+            if (romListener != null) {
+                romListener.romPaged();
+            }
+        }
 
         // Bits 0-2: RAM selection for an upper window
         currentMapping[3] = ramBanks[value & 7];
 
         // bit 3: video bank selection for ula
-        activeVideoBank = ((value >> 3) & 1) == 1 ? 7 : 5;
+        int videoBank = ((value >> 3) & 1) == 1 ? 7 : 5;
+        if (videoBank != activeVideoBank) {
+            activeVideoBank = videoBank;
+            if (screenWriteListener != null) {
+                screenWriteListener.screenInvalidated();
+            }
+        }
 
         // bit 5: port blocking
         if (((value >> 5) & 1) == 1) {
@@ -201,6 +258,9 @@ public class Memory128KImpl implements spectrum.hardware.memory.Memory {
         for (byte[] ramBank : ramBanks) {
             Arrays.fill(ramBank, (byte) 0);
         }
+        if (screenWriteListener != null) {
+            screenWriteListener.screenInvalidated();
+        }
     }
 
     private void clearRom() {
@@ -1,6 +1,7 @@
 package spectrum.hardware.memory;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.machine.MachineSettings;
@@ -40,6 +41,11 @@ public class Memory64KImpl implements Memory {
     @Getter
     private boolean romWriteProtected = true;
 
+    @Setter
+    private ScreenWriteListener screenWriteListener;
+    @Setter
+    private RomListener romListener;
+
     public Memory64KImpl(MachineSettings machineSettings) {
         log.info("Initializing ZX Spectrum memory");
 
@@ -62,12 +68,18 @@ public class Memory64KImpl implements Memory {
             for (int i = 0; i < ROM_SIZE; i++) {
                 ram[i] = 0;
             }
+            if (romListener != null) {
+                romListener.romLoaded(ram);
+            }
         }
 
         // Clear RAM
         for (int i = SCREEN_RAM_START; i < RAM_SIZE; i++) {
             ram[i] = 0;
         }
+        if (screenWriteListener != null) {
+            screenWriteListener.screenInvalidated();
+        }
 
         log.debug("Memory cleared");
     }
@@ -97,6 +109,9 @@ public class Memory64KImpl implements Memory {
 
         // Restore write protection flag
         romWriteProtected = wasProtected;
+        if (romListener != null) {
+            romListener.romLoaded(ram);
+        }
 
         log.info("ROM loaded successfully");
     }
@@ -137,9 +152,18 @@ public class Memory64KImpl implements Memory {
             log.warn("Writing 0x{} to 0x{}", Integer.toHexString(value).toUpperCase(), Integer.toHexString(address).toUpperCase());
         }
 
-        if (address <= ROM_END && romWriteProtected) {
-            log.warn("Attempted write to protected ROM at 0x{}", Integer.toHexString(address).toUpperCase());
-            return;
+        if (address <= ROM_END) {
+            if (romWriteProtected) {
+                log.warn("Attempted write to protected ROM at 0x{}", Integer.toHexString(address).toUpperCase());
+                return;
+            }
+            if (romListener != null) {
+                romListener.romWritten(address);
+            }
+        }
+        if (screenWriteListener != null && address >= SCREEN_RAM_START
+                && address < SCREEN_RAM_START + SCREEN_RAM_SIZE && ram[address] != (byte) value) {
+            screenWriteListener.screenWritten(address - SCREEN_RAM_START);
         }
         // RAM
         if (volatileRam) {
@@ -188,6 +212,16 @@ public class Memory64KImpl implements Memory {
         clearMemory();
     }
 
+    @Override
+    public byte[] getDisplayMemory() {
+        return ram;
+    }
+
+    @Override
+    public byte[] getRomPage() {
+        return ram;
+    }
+
     @Override
     public byte[] getScreen() {
         return readBlock(SCREEN_RAM_START, SCREEN_RAM_END + 1);
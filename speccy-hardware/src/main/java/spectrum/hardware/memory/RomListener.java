@@ -0,0 +1,27 @@
+package spectrum.hardware.memory;
+
+/**
+ * Observer of the ROM page mapped at 0x0000, for caches of decoded ROM code.
+ */
+public interface RomListener {
+
+    /**
+     * Another page is mapped at 0x0000 (ROM paging, TR-DOS ROM mapped in or out).
+     */
+    void romPaged();
+
+    /**
+     * The contents of a page were replaced.
+     *
+     * @param page the page array, as returned by {@link Memory#getRomPage()}
+     */
+    void romLoaded(byte[] page);
+
+    /**
+     * A byte of the page mapped at 0x0000 was written (ROM write protection off).
+     *
+     * @param address address 0x0000-0x3FFF
+     */
+    void romWritten(int address);
+
+}
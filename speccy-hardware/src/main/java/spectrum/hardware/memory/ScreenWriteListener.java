@@ -0,0 +1,20 @@
+package spectrum.hardware.memory;
+
+/**
+ * Observer of writes into the displayed screen (bitmap and attributes).
+ */
+public interface ScreenWriteListener {
+
+    /**
+     * A byte of the displayed screen changed.
+     *
+     * @param offset offset from the start of the screen, 0x0000-0x17FF bitmap, 0x1800-0x1AFF attributes
+     */
+    void screenWritten(int offset);
+
+    /**
+     * The whole displayed screen may have changed (memory cleared, screen bank switched).
+     */
+    void screenInvalidated();
+
+}
@@ -2,36 +2,41 @@ package spectrum.hardware.sound;
 
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.machine.MachineSettings;
-
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.SourceDataLine;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
-import static spectrum.hardware.sound.SoundUtils.initializeAudio;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.sound.mixer.AudioPostProcessor;
+import spectrum.hardware.sound.mixer.MixerChannel;
+import spectrum.hardware.ula.ClockEventScheduler;
 
 @Slf4j
 public class BeeperImpl implements Sound {
 
-    private final AudioFormat audioFormat;
-    private final double cyclesPerSample;
+    private final AudioMixer mixer;
+    // Beeper samples, and PCM written by external sources through write()
+    private final MixerChannel channel;
+    private final MixerChannel pcmChannel;
+    // Speaker edges are synthesized band-limited once per frame
+    private final BeeperSynth synth;
+    private final double[] frameSamples;
 
-    private double tactAccumulator = 0;
-    private final short[] beeperBuffer = new short[1024];
-    private int beeperBufferIndex = 0;
+    // T-state of the last clock sync, port writes and frame end are synced by the ULA
+    private long tStates;
     private double volume = 0.8;
     private double lastSample = 0;
     private double lastFiltered = 0;
     private boolean beeperState = false;
     private volatile boolean mute = false;
-    private boolean enabled = true;
-
-    private SourceDataLine audioLine;
+    // Enabled once the mixer line is opened, headless machines never open it
+    private boolean enabled = false;
+    // Samples are not queued in speed-up mode, they would only add latency
+    private volatile boolean speedUpMode = false;
 
-    public BeeperImpl(MachineSettings machineSettings) {
-        int rate = machineSettings.getAudioSampleRate();
-        this.audioFormat = new AudioFormat(rate, 16, 1, true, false);
-        this.cyclesPerSample = (double) machineSettings.getMachineType().clockFreq / rate;
+    public BeeperImpl(MachineSettings machineSettings, AudioMixer mixer) {
+        this.mixer = mixer;
+        this.channel = mixer.addChannel("beeper");
+        this.pcmChannel = mixer.addChannel("pcm");
+        this.synth = new BeeperSynth(machineSettings.getMachineType().clockFreq, mixer.getSampleRate(),
+                machineSettings.getMachineType().tstatesFrame, BEEPER_AMPLITUDE);
+        this.frameSamples = new double[synth.getMaxFrameSamples()];
     }
 
     @Override
@@ -46,32 +51,25 @@ public class BeeperImpl implements Sound {
 
     @Override
     public void open() {
-        tactAccumulator = 0;
-        enabled = true;
-        audioLine = initializeAudio(audioFormat, beeperBuffer.length * 4);
-        if (audioLine == null) {
-            enabled = false;
-        } else {
-            audioLine.start();
-        }
+        synth.skip(tStates);
+        enabled = mixer.isOpen();
+        channel.setActive(enabled);
     }
 
     @Override
     public void init() {
-        tactAccumulator = 0;
+        synth.skip(tStates);
     }
 
     @Override
     public void reset() {
-        tactAccumulator = 0;
+        synth.skip(tStates);
     }
 
     @Override
     public void close() {
-        audioLine.drain();
-        audioLine.stop();
-        audioLine.close();
-        audioLine = null;
+        enabled = false;
+        channel.setActive(false);
     }
 
     @Override
@@ -84,66 +82,74 @@ public class BeeperImpl implements Sound {
         // ignore
     }
 
+    /**
+     * Integrate the edges of the frame into samples and queue them to the mixer,
+     * the mixer thread drains them to the line. The ULA has synced the clock
+     * listeners to the frame end.
+     */
     @Override
     public void endFrame() {
-        if (!enabled || mute) {
-            beeperBufferIndex = 0;
+        if (!enabled || speedUpMode) {
+            synth.skip(tStates);
             return;
         }
-        int bytesToWrite = beeperBufferIndex * 2;
-        byte[] playBuffer = new byte[bytesToWrite];
-        ByteBuffer byteBuffer = ByteBuffer.wrap(playBuffer);
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (int i = 0; i < beeperBufferIndex; i++) {
-            byteBuffer.putShort(beeperBuffer[i]);
+        int count = synth.readFrame(tStates, frameSamples);
+        applyFilters(count);
+        for (int i = 0; i < count; i++) {
+            channel.write((short) frameSamples[i]);
         }
-        audioLine.write(playBuffer, 0, beeperBufferIndex * 2);
-        beeperBufferIndex = 0;
     }
 
     @Override
-    public void ticks(long tStates, int delta) {
-        tactAccumulator += delta;
-        generateSamples();
+    public void setSpeedUpMode(boolean speedUpMode) {
+        this.speedUpMode = speedUpMode;
     }
 
     @Override
-    public void mute(boolean mute) {
-        this.mute = mute;
-    }
-
-    protected void generateSamples() {
-        while (tactAccumulator >= cyclesPerSample) {
-            writeSample(generateSample(beeperState, volume));
-            tactAccumulator -= cyclesPerSample;
-        }
+    public void ticks(long tStates, int delta) {
+        this.tStates = tStates;
     }
 
-    protected short generateSample(boolean state, double volume) {
-        double rawSample = state ? BEEPER_AMPLITUDE : 0;
-        return applyFilters(rawSample, volume);
+    @Override
+    public long nextEventTStates(long tStates) {
+        // Edges are synced by port I/O, samples are made at the frame end
+        return ClockEventScheduler.NEVER;
     }
 
-    private short applyFilters(double rawInput, double volume) {
-        // DC Blocker
-        double dcFiltered = rawInput - lastSample + (0.995 * lastFiltered);
-
-        lastSample = rawInput;
-        lastFiltered = dcFiltered;
-
-        double finalSample = dcFiltered * volume;
-
-        // Clamping (overflow protect)
-        return (short) Math.clamp(finalSample, -32767, 32767);
+    @Override
+    public double getBufferFill() {
+        return enabled ? mixer.getBufferFill() : -1;
     }
 
-    private void writeSample(short sample) {
-        if (beeperBufferIndex >= beeperBuffer.length) {
-            log.error("Beeper buffer overflow.");
+    @Override
+    public void mute(boolean mute) {
+        this.mute = mute;
+        // Muted samples are still queued, they keep the mixer in step with the emulation
+        channel.setMuted(mute);
+    }
+
+    /**
+     * Filter the frame samples in place, stage by stage over the whole frame.
+     */
+    private void applyFilters(int count) {
+        AudioPostProcessor post = mixer.getPostProcessor();
+        // DC Blocker, unless the mixer blocks DC on the mixed output
+        if (post == null || !post.isDcBlocking()) {
+            double in = lastSample;
+            double out = lastFiltered;
+            for (int i = 0; i < count; i++) {
+                double raw = frameSamples[i];
+                out = raw - in + 0.995 * out;
+                in = raw;
+                frameSamples[i] = out;
+            }
+            lastSample = in;
+            lastFiltered = out;
         }
-        beeperBuffer[beeperBufferIndex++] = sample;
-        if (beeperBufferIndex >= beeperBuffer.length) {
-            beeperBufferIndex = 0;
+        double v = volume;
+        for (int i = 0; i < count; i++) {
+            // Clamping (overflow protect)
+            frameSamples[i] = Math.clamp(frameSamples[i] * v, -32767, 32767);
         }
     }
 
@@ -156,8 +162,8 @@ public class BeeperImpl implements Sound {
 
     @Override
     public void write(short value) {
-        if (!mute && volume > 0) {
-            writeSample(value);
+        if (enabled && !mute && volume > 0) {
+            pcmChannel.write(value);
         }
     }
 
@@ -172,7 +178,7 @@ public class BeeperImpl implements Sound {
 
     private void handleState(boolean newBeeperState) {
         if (newBeeperState != beeperState) {
-            generateSamples();
+            synth.edge(tStates, newBeeperState);
             beeperState = newBeeperState;
         }
     }
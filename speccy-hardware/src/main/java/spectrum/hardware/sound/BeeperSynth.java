@@ -0,0 +1,94 @@
+package spectrum.hardware.sound;
+
+/**
+ * Band-limited beeper synthesis.
+ * <p>
+ * The speaker level changes only on port writes (and tape push-back), so instead of
+ * sampling the level every {@code clock / sampleRate} T-states, every edge is placed
+ * at its exact T-state as a band-limited step in a {@link BlipBuffer}. The frame is
+ * integrated into samples once, at its end. The cost follows the number of edges,
+ * not the number of T-states, and edges between sample points are not lost, so
+ * multi-channel beeper engines and tape push-back do not alias.
+ */
+public class BeeperSynth {
+
+    // Longest chunk between reads, a frame is about 70000 T-states
+    private static final int MAX_CHUNK_FRAMES = 4;
+
+    private final BlipBuffer blip;
+    private final int amplitude;
+    private final long maxChunkTStates;
+    private final int capacity;
+
+    // T-state of the chunk start
+    private long chunkStart;
+    private boolean high;
+
+    /**
+     * @param clockFreq    CPU clock, Hz
+     * @param sampleRate   output sample rate, Hz
+     * @param tStatesFrame T-states per frame
+     * @param amplitude    level of the speaker when high
+     */
+    public BeeperSynth(int clockFreq, int sampleRate, int tStatesFrame, int amplitude) {
+        this.amplitude = amplitude;
+        this.maxChunkTStates = (long) tStatesFrame * MAX_CHUNK_FRAMES;
+        this.capacity = (int) Math.ceil((double) maxChunkTStates * sampleRate / clockFreq) + 1;
+        this.blip = new BlipBuffer(clockFreq, sampleRate, capacity);
+    }
+
+    /**
+     * Speaker level change.
+     *
+     * @param tStates T-state of the change
+     * @param state   new level
+     */
+    public void edge(long tStates, boolean state) {
+        if (state == high) {
+            return;
+        }
+        high = state;
+        if (tStates - chunkStart > maxChunkTStates || tStates < chunkStart) {
+            // Nobody read the output for too long, drop it
+            skip(tStates);
+        }
+        blip.addDelta(tStates - chunkStart, state ? amplitude : -amplitude);
+    }
+
+    /**
+     * Close the chunk and read all samples up to the given T-state.
+     *
+     * @param tStates end of the chunk
+     * @param out     receives the samples, must hold a whole chunk
+     * @return number of samples
+     */
+    public int readFrame(long tStates, double[] out) {
+        if (tStates - chunkStart > maxChunkTStates || tStates < chunkStart) {
+            skip(tStates);
+            return 0;
+        }
+        blip.endFrame(tStates - chunkStart);
+        chunkStart = tStates;
+        return blip.readSamples(out, 0, 1, blip.samplesAvailable());
+    }
+
+    /**
+     * Drop everything up to the given T-state, keeping the current level.
+     */
+    public void skip(long tStates) {
+        blip.clear();
+        chunkStart = tStates;
+        // The cleared integrator restarts from the current level
+        if (high) {
+            blip.addDelta(0, amplitude);
+        }
+    }
+
+    /**
+     * Maximum number of samples returned by one {@link #readFrame}.
+     */
+    public int getMaxFrameSamples() {
+        return capacity;
+    }
+
+}
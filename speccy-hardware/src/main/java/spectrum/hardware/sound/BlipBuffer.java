@@ -0,0 +1,156 @@
+package spectrum.hardware.sound;
+
+import java.util.Arrays;
+
+/**
+ * Band-limited synthesis buffer.
+ * <p>
+ * Sources report level changes (deltas) at exact input clock times, the buffer
+ * places a band-limited step (windowed sinc, {@link #PHASES} sub-sample phases)
+ * at that position in output samples, and integrates on read. Square waves at any
+ * pitch come out without aliasing and at any host sample rate. All arithmetic
+ * is fixed point: times are 32.32 output samples, kernels are scaled by
+ * {@code 1 << KERNEL_BITS}.
+ * <p>
+ * Usage per chunk: {@link #addDelta} with times relative to the chunk start,
+ * {@link #endFrame} with the chunk length, then {@link #readSamples}.
+ * Output is delayed by about {@link #TAPS} / 2 samples.
+ */
+public class BlipBuffer {
+
+    static final int PHASE_BITS = 5;
+    static final int PHASES = 1 << PHASE_BITS;
+    static final int TAPS = 16;
+    static final int KERNEL_BITS = 12;
+    private static final double KERNEL_SCALE = 1 << KERNEL_BITS;
+    // Cutoff relative to the output sample rate, below Nyquist to leave room for the window
+    private static final double CUTOFF = 0.45;
+
+    private static final int[][] KERNEL = buildKernel();
+
+    // Output samples per input clock, 32.32 fixed point
+    private final long factor;
+    // Start of the current chunk in output samples, 32.32 fixed point
+    private long offset;
+    private final int[] buffer;
+    private final int capacity;
+    private int integrator;
+
+    /**
+     * @param clockRate  input clock rate, Hz
+     * @param sampleRate output sample rate, Hz
+     * @param capacity   maximum number of output samples held between reads
+     */
+    public BlipBuffer(double clockRate, int sampleRate, int capacity) {
+        this.factor = Math.round(sampleRate / clockRate * 4294967296.0);
+        this.capacity = capacity;
+        this.buffer = new int[capacity + TAPS + 1];
+    }
+
+    /**
+     * Add a level change.
+     *
+     * @param clockTime input clock time relative to the current chunk start
+     * @param delta     level change
+     */
+    public void addDelta(long clockTime, int delta) {
+        long position = offset + clockTime * factor;
+        int index = (int) (position >>> 32);
+        int[] kernel = KERNEL[(int) (position >>> (32 - PHASE_BITS)) & (PHASES - 1)];
+        for (int i = 0; i < TAPS; i++) {
+            buffer[index + i] += kernel[i] * delta;
+        }
+    }
+
+    /**
+     * Close the current chunk, samples up to its end become readable.
+     *
+     * @param clockDuration chunk length in input clocks
+     */
+    public void endFrame(long clockDuration) {
+        offset += clockDuration * factor;
+        if (samplesAvailable() > capacity) {
+            throw new IllegalStateException("Blip buffer overflow");
+        }
+    }
+
+    public int samplesAvailable() {
+        return (int) (offset >>> 32);
+    }
+
+    /**
+     * Input clocks to run before the given number of samples is available.
+     */
+    public long clocksNeeded(int samples) {
+        long needed = ((long) samples << 32) - offset;
+        return needed <= 0 ? 0 : (needed + factor - 1) / factor;
+    }
+
+    /**
+     * Read and remove samples.
+     *
+     * @param out       output buffer
+     * @param outOffset first index in the output buffer
+     * @param stride    distance between samples in the output buffer (2 for interleaved stereo)
+     * @param count     maximum number of samples
+     * @return number of samples read
+     */
+    public int readSamples(double[] out, int outOffset, int stride, int count) {
+        count = Math.min(count, samplesAvailable());
+        int sum = integrator;
+        for (int i = 0, o = outOffset; i < count; i++, o += stride) {
+            sum += buffer[i];
+            out[o] = sum / KERNEL_SCALE;
+        }
+        integrator = sum;
+        removeSamples(count);
+        return count;
+    }
+
+    public void clear() {
+        offset = 0;
+        integrator = 0;
+        Arrays.fill(buffer, 0);
+    }
+
+    private void removeSamples(int count) {
+        int remaining = samplesAvailable() - count + TAPS;
+        System.arraycopy(buffer, count, buffer, 0, remaining);
+        Arrays.fill(buffer, remaining, remaining + count, 0);
+        offset -= (long) count << 32;
+    }
+
+    /**
+     * Windowed sinc impulse per phase, each phase sums exactly to the unit step.
+     */
+    private static int[][] buildKernel() {
+        int[][] kernel = new int[PHASES][TAPS];
+        int half = TAPS / 2;
+        for (int phase = 0; phase < PHASES; phase++) {
+            double[] taps = new double[TAPS];
+            double sum = 0;
+            for (int i = 0; i < TAPS; i++) {
+                double x = i - half - (double) phase / PHASES + 1;
+                double sinc = x == 0 ? 1 : Math.sin(Math.PI * 2 * CUTOFF * x) / (Math.PI * 2 * CUTOFF * x);
+                // Blackman window over the kernel width
+                double w = 2 * Math.PI * (x + half) / TAPS;
+                double window = 0.42 - 0.5 * Math.cos(w) + 0.08 * Math.cos(2 * w);
+                taps[i] = sinc * Math.max(0, window);
+                sum += taps[i];
+            }
+            int total = 0;
+            int peak = 0;
+            for (int i = 0; i < TAPS; i++) {
+                kernel[phase][i] = (int) Math.round(taps[i] / sum * KERNEL_SCALE);
+                total += kernel[phase][i];
+                if (kernel[phase][i] > kernel[phase][peak]) {
+                    peak = i;
+                }
+            }
+            // Rounding leftover goes to the peak, so a step of 1 integrates to exactly 1
+            kernel[phase][peak] += (int) KERNEL_SCALE - total;
+        }
+        return kernel;
+    }
+
+}
@@ -33,6 +33,15 @@ public interface Sound extends OutPortListener, ClockListener, Device {
      */
     void endFrame();
 
+    /**
+     * Fill level of the audio output buffer, 0 (empty) to 1 (full).
+     *
+     * @return fill level, negative when there is no audio output
+     */
+    default double getBufferFill() {
+        return -1;
+    }
+
     /**
      * Write PCM data to the sound output, from an external thread.
      *
@@ -9,7 +9,7 @@ import javax.sound.sampled.*;
 @UtilityClass
 public class SoundUtils {
 
-    static SourceDataLine initializeAudio(AudioFormat format, int bufferSize) {
+    public static SourceDataLine initializeAudio(AudioFormat format, int bufferSize) {
         SourceDataLine audioLine;
         try {
             DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
@@ -1,10 +1,14 @@
 package spectrum.hardware.sound.ay;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.machine.Device;
 import spectrum.hardware.machine.MachineSettings;
 import spectrum.hardware.sound.Sound;
+import spectrum.hardware.sound.ay.psg.AyRecorder;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.ula.ClockEventScheduler;
 import spectrum.hardware.ula.InPortListener;
 import spectrum.hardware.ula.OutPortListener;
 
@@ -31,28 +35,57 @@ import static spectrum.hardware.sound.ay.AyConstants.*;
 public class AY38912 implements InPortListener, OutPortListener, Sound, Device {
 
     @Getter
-    private final AyChipCore chipCore;
+    private final AyCore chipCore;
     private final AyAudioOutput audioOutput;
 
+    // Stereo samples rendered at once in event-driven mode
+    private static final int BLOCK_SAMPLES = 256;
+
     private final double tStatesPerSample;
     private double tStateAcc;
+    // Preallocated stereo sample [left, right]
+    private final double[] sample = new double[2];
+    // Preallocated interleaved stereo block for event-driven rendering
+    private final double[] block = new double[BLOCK_SAMPLES * 2];
 
     private volatile boolean speedUpMode = false;
+    // Render only when the ULA syncs (register writes, end of frame) instead of on sample events
+    @Getter
+    private boolean eventDriven;
+    // Register write capture (PSG/YM), null when not recording
+    @Getter
+    @Setter
+    private AyRecorder recorder;
 
     /**
      * Create AY-3-8912 emulator.
      *
-     * @param settings Machine settings (provides clock frequency)
+     * @param settings Machine settings (provides clock frequency and core type)
+     * @param mixer    Audio mixer (provides sample rate)
      */
-    public AY38912(MachineSettings settings) {
+    public AY38912(MachineSettings settings, AudioMixer mixer) {
+        this(settings, mixer.getSampleRate(), new AyAudioOutput(mixer));
+    }
+
+    /**
+     * Create AY-3-8912 emulator writing to the given output, e.g. one capturing samples in tests.
+     */
+    AY38912(MachineSettings settings, int sampleRate, AyAudioOutput audioOutput) {
         double cpuFreq = settings.getMachineType().clockFreq;
         double ayClock = cpuFreq / 2.0; // AY clock is half CPU clock
 
-        this.tStatesPerSample = cpuFreq / DEFAULT_SAMPLE_RATE;
-        this.chipCore = new AyChipCore(ayClock, DEFAULT_SAMPLE_RATE);
-        this.audioOutput = new AyAudioOutput(DEFAULT_SAMPLE_RATE);
+        this.tStatesPerSample = cpuFreq / sampleRate;
+        this.chipCore = createCore(settings.getAyCoreType(), ayClock, sampleRate);
+        this.audioOutput = audioOutput;
+        this.eventDriven = settings.isAyEventRendering();
+        log.debug("AY core {} at {} Hz", chipCore.getClass().getSimpleName(), sampleRate);
+    }
 
-        audioOutput.open();
+    private static AyCore createCore(MachineSettings.AyCoreTypes type, double ayClock, int sampleRate) {
+        if (type == MachineSettings.AyCoreTypes.CLOCK_EXACT) {
+            return new AyClockCore(ayClock, sampleRate);
+        }
+        return new AyChipCore(ayClock, sampleRate);
     }
 
     // ========== Device Interface ==========
@@ -65,13 +98,12 @@ public class AY38912 implements InPortListener, OutPortListener, Sound, Device {
     @Override
     public void reset() {
         chipCore.reset();
-        audioOutput.reset();
         tStateAcc = 0;
     }
 
     @Override
     public void open() {
-        // Audio already opened in constructor
+        audioOutput.open();
     }
 
     @Override
@@ -84,6 +116,19 @@ public class AY38912 implements InPortListener, OutPortListener, Sound, Device {
         this.speedUpMode = speedUpMode;
     }
 
+    /**
+     * Switch between per-sample clock events and event-driven rendering.
+     * <p>
+     * Event-driven, the AY never asks the clock for service: the ULA syncs it before
+     * every AY port access and at the end of the frame, and all samples up to that
+     * T-state are rendered in one block before the register change applies.
+     *
+     * @param eventDriven true to render on register writes and frame end only
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
     // ========== Port I/O ==========
 
     /**
@@ -119,6 +164,10 @@ public class AY38912 implements InPortListener, OutPortListener, Sound, Device {
         if (maskedPort == PORT_REGISTER_SELECT) {
             chipCore.selectRegister(value);
         } else if (maskedPort == PORT_DATA_WRITE) {
+            AyRecorder r = recorder;
+            if (r != null) {
+                r.write(chipCore.getSelectedRegister(), value);
+            }
             chipCore.writeData(value);
         }
     }
@@ -138,25 +187,68 @@ public class AY38912 implements InPortListener, OutPortListener, Sound, Device {
         }
 
         tStateAcc += delta;
+        if (eventDriven) {
+            int count = (int) (tStateAcc / tStatesPerSample);
+            tStateAcc -= count * tStatesPerSample;
+            renderSamples(count);
+            return;
+        }
         while (tStateAcc >= tStatesPerSample) {
             tStateAcc -= tStatesPerSample;
             renderSample();
         }
     }
 
+    /**
+     * Next sample boundary; register writes are synced by the ULA before they apply.
+     *
+     * @param tStates Current T-state count
+     * @return T-state of the next sample, never in event-driven mode
+     */
+    @Override
+    public long nextEventTStates(long tStates) {
+        if (eventDriven || speedUpMode || !audioOutput.isEnabled()) {
+            return ClockEventScheduler.NEVER;
+        }
+        return tStates + Math.max(1, (long) Math.ceil(tStatesPerSample - tStateAcc));
+    }
+
     /**
      * Render one audio sample and write to output.
      */
     private void renderSample() {
-        double[] sample = chipCore.generateSample();
+        chipCore.generateSample(sample, 0);
         audioOutput.writeSample(sample[0], sample[1]);
     }
 
+    /**
+     * Render a run of samples block by block and write to output.
+     */
+    private void renderSamples(int count) {
+        while (count > 0) {
+            int chunk = Math.min(count, BLOCK_SAMPLES);
+            chipCore.render(block, 0, chunk);
+            for (int i = 0; i < chunk * 2; i += 2) {
+                audioOutput.writeSample(block[i], block[i + 1]);
+            }
+            count -= chunk;
+        }
+    }
+
     // ========== Sound Interface ==========
 
+    /**
+     * The ULA has synced all clock listeners up to the frame end, so the
+     * event-driven mode has rendered the whole frame already. Samples go to
+     * the mixer as they are rendered, nothing to flush; the recorder, if any,
+     * closes its frame.
+     */
     @Override
     public void endFrame() {
-        audioOutput.flush();
+        AyRecorder r = recorder;
+        if (r != null) {
+            r.endFrame();
+        }
     }
 
     @Override
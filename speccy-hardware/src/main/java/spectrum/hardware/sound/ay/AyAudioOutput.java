@@ -1,68 +1,48 @@
 package spectrum.hardware.sound.ay;
 
-import lombok.extern.slf4j.Slf4j;
-
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.sound.mixer.MixerChannel;
 
 /**
  * Audio output handler for AY-3-8912.
  * <p>
- * Manages the javax.sound.sampled audio line and buffer.
+ * Feeds the AY channel of the {@link AudioMixer}, whatever sink it plays into.
  * Separates audio rendering concerns from chip emulation.
  */
-@Slf4j
 public class AyAudioOutput {
 
-    private static final int BUFFER_SIZE = 4096;
-
-    private final int sampleRate;
-    private SourceDataLine line;
-    private final byte[] audioBuffer = new byte[BUFFER_SIZE];
-    private int audioPos;
+    private final AudioMixer mixer;
+    private final MixerChannel channel;
 
     private double masterGain = 1.0;
     private boolean muted;
-    private boolean enabled = true;
+    // Enabled once the line is opened, headless machines never open it
+    private boolean enabled = false;
 
     /**
      * Create audio output handler.
      *
-     * @param sampleRate Audio sample rate (e.g., 44100)
+     * @param mixer Audio mixer, the output runs at its sample rate
      */
-    public AyAudioOutput(int sampleRate) {
-        this.sampleRate = sampleRate;
+    public AyAudioOutput(AudioMixer mixer) {
+        this.mixer = mixer;
+        this.channel = mixer.addChannel("ay");
     }
 
     /**
-     * Initialize and open audio output.
+     * Enable output if the mixer line is open.
      */
     public void open() {
-        try {
-            AudioFormat format = new AudioFormat(sampleRate, 16, 2, true, false);
-            line = AudioSystem.getSourceDataLine(format);
-            line.open(format, BUFFER_SIZE);
-            line.start();
-            audioPos = 0;
-            enabled = true;
-        } catch (LineUnavailableException e) {
-            log.error("AY audio init failed", e);
-            enabled = false;
-        }
+        enabled = mixer.isOpen();
+        channel.setActive(enabled);
     }
 
     /**
-     * Close audio output and release resources.
+     * Disable output.
      */
     public void close() {
-        if (line != null) {
-            line.drain();
-            line.close();
-            line = null;
-        }
         enabled = false;
+        channel.setActive(false);
     }
 
     /**
@@ -86,31 +66,7 @@ public class AyAudioOutput {
         short ls = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, left));
         short rs = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, right));
 
-        audioBuffer[audioPos++] = (byte) (ls & 0xFF);
-        audioBuffer[audioPos++] = (byte) ((ls >> 8) & 0xFF);
-        audioBuffer[audioPos++] = (byte) (rs & 0xFF);
-        audioBuffer[audioPos++] = (byte) ((rs >> 8) & 0xFF);
-
-        if (audioPos >= audioBuffer.length) {
-            flush();
-        }
-    }
-
-    /**
-     * Flush buffer to audio line.
-     */
-    public void flush() {
-        if (audioPos > 0 && line != null && enabled) {
-            line.write(audioBuffer, 0, audioPos);
-            audioPos = 0;
-        }
-    }
-
-    /**
-     * Reset audio buffer.
-     */
-    public void reset() {
-        audioPos = 0;
+        channel.write(ls, rs);
     }
 
     /**
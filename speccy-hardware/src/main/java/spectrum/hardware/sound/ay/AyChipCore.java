@@ -11,7 +11,7 @@ import static spectrum.hardware.sound.ay.AyConstants.*;
  *
  * @see <a href="http://map.grauw.nl/resources/sound/generalinstrument_ay-3-8910.pdf">AY-3-8910/8912 Datasheet</a>
  */
-public class AyChipCore {
+public class AyChipCore implements AyCore {
 
     private final AyRegisterFile registers = new AyRegisterFile();
     private final ToneGenerator[] toneGenerators = new ToneGenerator[CHANNEL_COUNT];
@@ -23,6 +23,11 @@ public class AyChipCore {
     private final double baseStep;
     private final double envBaseStep;
 
+    // Generator steps per sample, recomputed on register writes only
+    private final double[] toneSteps = new double[CHANNEL_COUNT];
+    private double noiseStep;
+    private double envelopeStep;
+
     /**
      * Create AY chip core.
      *
@@ -36,11 +41,13 @@ public class AyChipCore {
         for (int i = 0; i < CHANNEL_COUNT; i++) {
             toneGenerators[i] = new ToneGenerator();
         }
+        updateCachedState();
     }
 
     /**
      * Reset chip to initial state.
      */
+    @Override
     public void reset() {
         registers.reset();
         for (ToneGenerator tg : toneGenerators) {
@@ -49,6 +56,7 @@ public class AyChipCore {
         noiseGenerator.reset();
         envelopeGenerator.reset();
         selectedRegister = 0;
+        updateCachedState();
     }
 
     /**
@@ -56,6 +64,7 @@ public class AyChipCore {
      *
      * @param regIndex Register index (0-15)
      */
+    @Override
     public void selectRegister(int regIndex) {
         this.selectedRegister = regIndex & 0x0F;
     }
@@ -65,6 +74,7 @@ public class AyChipCore {
      *
      * @param value Value to write
      */
+    @Override
     public void writeData(int value) {
         registers.write(selectedRegister, value);
 
@@ -72,6 +82,19 @@ public class AyChipCore {
         if (selectedRegister == AyRegister.ENVELOPE_SHAPE.getIndex()) {
             envelopeGenerator.setShape(value & ENVELOPE_SHAPE_MASK);
         }
+        updateCachedState();
+    }
+
+    /**
+     * Recompute generator steps and mixer state from the registers.
+     */
+    private void updateCachedState() {
+        for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+            toneSteps[ch] = baseStep / registers.getTonePeriod(ch);
+        }
+        noiseStep = baseStep / registers.getNoisePeriod();
+        envelopeStep = envBaseStep / registers.getEnvelopePeriod();
+        mixer.updateRegisters(registers);
     }
 
     /**
@@ -79,6 +102,7 @@ public class AyChipCore {
      *
      * @return Register value
      */
+    @Override
     public int readData() {
         if (selectedRegister >= IO_PORT_A_INDEX) {
             return 0xFF; // I/O ports return 0xFF
@@ -87,62 +111,41 @@ public class AyChipCore {
     }
 
     /**
-     * Generate one audio sample.
+     * Generate one audio sample into a preallocated stereo buffer.
      *
-     * @return Stereo sample as [left, right]
+     * @param out    Stereo buffer, receives left and right at offset, offset + 1
+     * @param offset Offset in the buffer
      */
-    public double[] generateSample() {
-        // Update generators
-        boolean[] toneOutputs = updateToneGenerators();
-        boolean noiseOutput = updateNoiseGenerator();
-        int envLevel = updateEnvelopeGenerator();
-
-        // Mix and return
-        return mixer.mix(registers, toneOutputs, noiseOutput, envLevel);
+    @Override
+    public void generateSample(double[] out, int offset) {
+        int toneOutputs = updateToneGenerators();
+        boolean noiseOutput = noiseGenerator.update(noiseStep);
+        int envLevel = envelopeGenerator.update(envelopeStep);
+
+        mixer.mix(toneOutputs, noiseOutput, envLevel, out, offset);
     }
 
     /**
      * Update all three tone generators.
      *
-     * @return Array of tone outputs [A, B, C]
+     * @return Tone outputs, bit per channel (bit 0 = A)
      */
-    private boolean[] updateToneGenerators() {
-        boolean[] outputs = new boolean[CHANNEL_COUNT];
+    private int updateToneGenerators() {
+        int outputs = 0;
         for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
-            int period = registers.getTonePeriod(ch);
-            double step = baseStep / period;
-            outputs[ch] = toneGenerators[ch].update(step);
+            if (toneGenerators[ch].update(toneSteps[ch])) {
+                outputs |= 1 << ch;
+            }
         }
         return outputs;
     }
 
-    /**
-     * Update noise generator.
-     *
-     * @return Noise output state
-     */
-    private boolean updateNoiseGenerator() {
-        int period = registers.getNoisePeriod();
-        double step = baseStep / period;
-        return noiseGenerator.update(step);
-    }
-
-    /**
-     * Update envelope generator.
-     *
-     * @return Envelope level (0-15)
-     */
-    private int updateEnvelopeGenerator() {
-        int period = registers.getEnvelopePeriod();
-        double step = envBaseStep / period;
-        return envelopeGenerator.update(step);
-    }
-
     /**
      * Set stereo panning mode.
      *
      * @param mode Panning mode
      */
+    @Override
     public void setPanningMode(PanningMode mode) {
         mixer.setPanningMode(mode);
     }
@@ -152,6 +155,7 @@ public class AyChipCore {
      *
      * @return Current panning mode
      */
+    @Override
     public PanningMode getPanningMode() {
         return mixer.getPanningMode();
     }
@@ -161,6 +165,7 @@ public class AyChipCore {
      *
      * @return Register file
      */
+    @Override
     public AyRegisterFile getRegisters() {
         return registers;
     }
@@ -170,6 +175,7 @@ public class AyChipCore {
      *
      * @return Selected register index (0-15)
      */
+    @Override
     public int getSelectedRegister() {
         return selectedRegister;
     }
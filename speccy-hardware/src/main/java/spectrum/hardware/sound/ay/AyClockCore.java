@@ -0,0 +1,244 @@
+package spectrum.hardware.sound.ay;
+
+import spectrum.hardware.sound.BlipBuffer;
+
+import static spectrum.hardware.sound.ay.AyConstants.*;
+
+/**
+ * AY-3-8912 core stepped at the true chip rate (AY clock / 8).
+ * <p>
+ * Tone, noise and envelope are integer counters compared against the register
+ * periods, as in the chip: a tone output toggles every {@code period} steps,
+ * the noise LFSR is clocked every {@code 2 * period} steps and the envelope advances
+ * one of its 16 levels every {@code 2 * period} steps (a full cycle takes
+ * {@code 256 * period} AY clocks). Output level changes are fed as deltas into
+ * {@link BlipBuffer}s, which resample them band-limited to the host rate, so high
+ * pitches do not alias and no floating-point work is done per chip step.
+ *
+ * @see <a href="http://map.grauw.nl/resources/sound/generalinstrument_ay-3-8910.pdf">AY-3-8910/8912 Datasheet</a>
+ */
+public class AyClockCore implements AyCore {
+
+    // Chip steps per AY clock
+    static final int CLOCK_DIVIDER = 8;
+    // Noise and envelope periods in chip steps per register unit
+    private static final int NOISE_STEPS = 2;
+    // One envelope level lasts 16 AY clocks per period unit
+    private static final int ENVELOPE_STEPS = 16 / CLOCK_DIVIDER;
+
+    private static final int LEVELS = 16;
+    private static final int BLIP_CAPACITY = 4096;
+    // Samples rendered per run, one blip chunk never exceeds the capacity
+    private static final int MAX_CHUNK = BLIP_CAPACITY / 2;
+
+    private final AyRegisterFile registers = new AyRegisterFile();
+    private final NoiseGenerator noiseGenerator = new NoiseGenerator();
+    private final EnvelopeGenerator envelopeGenerator = new EnvelopeGenerator();
+    private final BlipBuffer left;
+    private final BlipBuffer right;
+
+    private int selectedRegister;
+    private PanningMode panningMode = PanningMode.ABC_WIDE;
+
+    // Counters and periods in chip steps
+    private final int[] tonePeriod = new int[CHANNEL_COUNT];
+    private final int[] toneCounter = new int[CHANNEL_COUNT];
+    private int toneOutputs;
+    private int noisePeriod;
+    private int noiseCounter;
+    private boolean noiseOutput;
+    private int envelopePeriod;
+    private int envelopeCounter;
+    private int envelopeLevel;
+
+    // Mixer state, bit per channel
+    private int toneDisabled;
+    private int noiseDisabled;
+    private int envelopeMode;
+    private final int[] fixedLevel = new int[CHANNEL_COUNT];
+
+    // Output amplitude per [channel * LEVELS + level] for each side
+    private final int[] leftAmplitude = new int[CHANNEL_COUNT * LEVELS];
+    private final int[] rightAmplitude = new int[CHANNEL_COUNT * LEVELS];
+    private int lastLeft;
+    private int lastRight;
+
+    /**
+     * Create AY chip core.
+     *
+     * @param ayClock    AY clock frequency (typically CPU clock / 2)
+     * @param sampleRate Audio sample rate (e.g., 44100, 48000)
+     */
+    public AyClockCore(double ayClock, int sampleRate) {
+        double stepRate = ayClock / CLOCK_DIVIDER;
+        this.left = new BlipBuffer(stepRate, sampleRate, BLIP_CAPACITY);
+        this.right = new BlipBuffer(stepRate, sampleRate, BLIP_CAPACITY);
+        updateAmplitudes();
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        registers.reset();
+        noiseGenerator.reset();
+        envelopeGenerator.reset();
+        for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+            toneCounter[ch] = 0;
+        }
+        toneOutputs = 0;
+        noiseCounter = 0;
+        noiseOutput = false;
+        envelopeCounter = 0;
+        envelopeLevel = 0;
+        selectedRegister = 0;
+        left.clear();
+        right.clear();
+        lastLeft = 0;
+        lastRight = 0;
+        updateCachedState();
+    }
+
+    @Override
+    public void selectRegister(int regIndex) {
+        this.selectedRegister = regIndex & 0x0F;
+    }
+
+    @Override
+    public void writeData(int value) {
+        registers.write(selectedRegister, value);
+
+        // Envelope shape write restarts the envelope
+        if (selectedRegister == AyRegister.ENVELOPE_SHAPE.getIndex()) {
+            envelopeGenerator.setShape(value & ENVELOPE_SHAPE_MASK);
+            envelopeCounter = 0;
+            envelopeLevel = envelopeGenerator.getLevel();
+        }
+        updateCachedState();
+    }
+
+    @Override
+    public int readData() {
+        if (selectedRegister >= IO_PORT_A_INDEX) {
+            return 0xFF; // I/O ports return 0xFF
+        }
+        return registers.read(selectedRegister);
+    }
+
+    @Override
+    public void generateSample(double[] out, int offset) {
+        render(out, offset, 1);
+    }
+
+    @Override
+    public void render(double[] out, int offset, int count) {
+        while (count > 0) {
+            int chunk = Math.min(count, MAX_CHUNK);
+            if (left.samplesAvailable() < chunk) {
+                run((int) left.clocksNeeded(chunk));
+            }
+            left.readSamples(out, offset, 2, chunk);
+            right.readSamples(out, offset + 1, 2, chunk);
+            offset += chunk << 1;
+            count -= chunk;
+        }
+    }
+
+    /**
+     * Advance the chip by a number of steps (AY clock / 8).
+     */
+    private void run(int steps) {
+        for (int time = 0; time < steps; time++) {
+            for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+                if (++toneCounter[ch] >= tonePeriod[ch]) {
+                    toneCounter[ch] = 0;
+                    toneOutputs ^= 1 << ch;
+                }
+            }
+            if (++noiseCounter >= noisePeriod) {
+                noiseCounter = 0;
+                noiseOutput = noiseGenerator.update(1.0);
+            }
+            if (++envelopeCounter >= envelopePeriod) {
+                envelopeCounter = 0;
+                envelopeLevel = envelopeGenerator.update(1.0);
+            }
+            output(time);
+        }
+        left.endFrame(steps);
+        right.endFrame(steps);
+    }
+
+    private void output(int time) {
+        int gate = (toneOutputs | toneDisabled) & (noiseOutput ? 0x07 : noiseDisabled);
+        int l = 0;
+        int r = 0;
+        for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+            if ((gate & (1 << ch)) != 0) {
+                int level = (envelopeMode & (1 << ch)) != 0 ? envelopeLevel : fixedLevel[ch];
+                l += leftAmplitude[ch * LEVELS + level];
+                r += rightAmplitude[ch * LEVELS + level];
+            }
+        }
+        if (l != lastLeft) {
+            left.addDelta(time, l - lastLeft);
+            lastLeft = l;
+        }
+        if (r != lastRight) {
+            right.addDelta(time, r - lastRight);
+            lastRight = r;
+        }
+    }
+
+    private void updateCachedState() {
+        toneDisabled = 0;
+        noiseDisabled = 0;
+        envelopeMode = 0;
+        for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+            tonePeriod[ch] = registers.getTonePeriod(ch);
+            if (!registers.isToneEnabled(ch)) {
+                toneDisabled |= 1 << ch;
+            }
+            if (!registers.isNoiseEnabled(ch)) {
+                noiseDisabled |= 1 << ch;
+            }
+            if (registers.isEnvelopeMode(ch)) {
+                envelopeMode |= 1 << ch;
+            }
+            fixedLevel[ch] = registers.getAmplitudeLevel(ch);
+        }
+        noisePeriod = registers.getNoisePeriod() * NOISE_STEPS;
+        envelopePeriod = registers.getEnvelopePeriod() * ENVELOPE_STEPS;
+    }
+
+    private void updateAmplitudes() {
+        for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+            for (int level = 0; level < LEVELS; level++) {
+                double amplitude = VolumeTable.getAmplitude(level) * AY_GAIN;
+                leftAmplitude[ch * LEVELS + level] = (int) Math.round(amplitude * panningMode.getLeftPan(ch));
+                rightAmplitude[ch * LEVELS + level] = (int) Math.round(amplitude * panningMode.getRightPan(ch));
+            }
+        }
+    }
+
+    @Override
+    public void setPanningMode(PanningMode mode) {
+        this.panningMode = mode;
+        updateAmplitudes();
+    }
+
+    @Override
+    public PanningMode getPanningMode() {
+        return panningMode;
+    }
+
+    @Override
+    public AyRegisterFile getRegisters() {
+        return registers;
+    }
+
+    @Override
+    public int getSelectedRegister() {
+        return selectedRegister;
+    }
+
+}
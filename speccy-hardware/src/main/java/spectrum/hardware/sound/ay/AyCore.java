@@ -0,0 +1,66 @@
+package spectrum.hardware.sound.ay;
+
+/**
+ * Chip-level emulation of the AY-3-8912, without audio output concerns.
+ *
+ * @see AyChipCore
+ * @see AyClockCore
+ */
+public interface AyCore {
+
+    /**
+     * Reset chip to initial state.
+     */
+    void reset();
+
+    /**
+     * Select register for subsequent read/write.
+     *
+     * @param regIndex Register index (0-15)
+     */
+    void selectRegister(int regIndex);
+
+    /**
+     * Write to currently selected register.
+     *
+     * @param value Value to write
+     */
+    void writeData(int value);
+
+    /**
+     * Read from currently selected register.
+     *
+     * @return Register value
+     */
+    int readData();
+
+    /**
+     * Generate one audio sample into a preallocated stereo buffer.
+     *
+     * @param out    Stereo buffer, receives left and right at offset, offset + 1
+     * @param offset Offset in the buffer
+     */
+    void generateSample(double[] out, int offset);
+
+    /**
+     * Generate several samples into an interleaved stereo buffer.
+     *
+     * @param out    Stereo buffer
+     * @param offset Offset of the first left sample
+     * @param count  Number of stereo samples
+     */
+    default void render(double[] out, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            generateSample(out, offset + (i << 1));
+        }
+    }
+
+    void setPanningMode(PanningMode mode);
+
+    PanningMode getPanningMode();
+
+    AyRegisterFile getRegisters();
+
+    int getSelectedRegister();
+
+}
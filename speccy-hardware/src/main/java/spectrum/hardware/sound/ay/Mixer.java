@@ -13,69 +13,71 @@ import static spectrum.hardware.sound.ay.AyConstants.CHANNEL_COUNT;
  */
 public class Mixer {
 
+    // Every channel's gate is HIGH
+    private static final int ALL_CHANNELS = (1 << CHANNEL_COUNT) - 1;
+
     private PanningMode panningMode = PanningMode.ABC_WIDE;
 
+    // Register state cached on writes, bit per channel
+    private int toneDisabled = ALL_CHANNELS;
+    private int noiseDisabled = ALL_CHANNELS;
+    private int envelopeMode;
+    private final double[] fixedAmplitude = new double[CHANNEL_COUNT];
+
     /**
-     * Mix all channels and produce stereo sample.
+     * Re-read mixer and amplitude registers. Called after register writes.
      *
-     * @param registers   Register file for amplitude and mixer settings
-     * @param toneOutputs Tone generator outputs [A, B, C]
-     * @param noiseOutput Noise generator output
-     * @param envLevel    Envelope generator level (0-15)
-     * @return Stereo sample as [left, right]
+     * @param registers Register file for amplitude and mixer settings
      */
-    public double[] mix(AyRegisterFile registers,
-                        boolean[] toneOutputs,
-                        boolean noiseOutput,
-                        int envLevel) {
-
-        double left = 0;
-        double right = 0;
-
+    public void updateRegisters(AyRegisterFile registers) {
+        toneDisabled = 0;
+        noiseDisabled = 0;
+        envelopeMode = 0;
         for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
-            double amplitude = computeChannelAmplitude(
-                    registers, ch, toneOutputs[ch], noiseOutput, envLevel);
-
-            left += amplitude * panningMode.getLeftPan(ch);
-            right += amplitude * panningMode.getRightPan(ch);
+            if (!registers.isToneEnabled(ch)) {
+                toneDisabled |= 1 << ch;
+            }
+            if (!registers.isNoiseEnabled(ch)) {
+                noiseDisabled |= 1 << ch;
+            }
+            if (registers.isEnvelopeMode(ch)) {
+                envelopeMode |= 1 << ch;
+            }
+            fixedAmplitude[ch] = VolumeTable.getAmplitude(registers.getAmplitudeLevel(ch)) * AY_GAIN;
         }
-
-        return new double[]{left, right};
     }
 
     /**
-     * Compute amplitude for a single channel.
+     * Mix all channels into a stereo sample.
      * <p>
      * Per datasheet: The output is HIGH when the corresponding generator is disabled.
      * Both tone and noise gates must be HIGH for output.
+     *
+     * @param toneOutputs Tone generator outputs, bit per channel (bit 0 = A)
+     * @param noiseOutput Noise generator output
+     * @param envLevel    Envelope generator level (0-15)
+     * @param out         Stereo buffer, receives left and right at offset, offset + 1
+     * @param offset      Offset in the buffer
      */
-    private double computeChannelAmplitude(AyRegisterFile registers,
-                                           int channel,
-                                           boolean toneOutput,
-                                           boolean noiseOutput,
-                                           int envLevel) {
-
-        boolean toneEnabled = registers.isToneEnabled(channel);
-        boolean noiseEnabled = registers.isNoiseEnabled(channel);
-
-        // Per datasheet: output is HIGH when generator is disabled
-        boolean toneGate = !toneEnabled || toneOutput;
-        boolean noiseGate = !noiseEnabled || noiseOutput;
+    public void mix(int toneOutputs, boolean noiseOutput, int envLevel, double[] out, int offset) {
+        int toneGate = toneOutputs | toneDisabled;
+        int noiseGate = noiseOutput ? ALL_CHANNELS : noiseDisabled;
+        int gate = toneGate & noiseGate;
 
-        // Both gates must be HIGH for output
-        if (!toneGate || !noiseGate) {
-            return 0;
-        }
-
-        // Get volume level
-        int volumeLevel;
-        if (registers.isEnvelopeMode(channel)) {
-            volumeLevel = envLevel;
-        } else {
-            volumeLevel = registers.getAmplitudeLevel(channel);
+        double left = 0;
+        double right = 0;
+        if (gate != 0) {
+            double envAmplitude = VolumeTable.getAmplitude(envLevel) * AY_GAIN;
+            for (int ch = 0; ch < CHANNEL_COUNT; ch++) {
+                if ((gate & (1 << ch)) != 0) {
+                    double amplitude = (envelopeMode & (1 << ch)) != 0 ? envAmplitude : fixedAmplitude[ch];
+                    left += amplitude * panningMode.getLeftPan(ch);
+                    right += amplitude * panningMode.getRightPan(ch);
+                }
+            }
         }
-
-        return VolumeTable.getAmplitude(volumeLevel) * AY_GAIN;
+        out[offset] = left;
+        out[offset + 1] = right;
     }
 
     /**
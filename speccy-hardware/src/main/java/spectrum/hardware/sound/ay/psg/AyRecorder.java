@@ -0,0 +1,154 @@
+package spectrum.hardware.sound.ay.psg;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Captures AY register writes frame by frame.
+ * <p>
+ * The capture is kept as a PSG stream (register/value pairs, {@code 0xFF} at every
+ * frame end) and as per-frame register snapshots for YM export. Only the sound
+ * registers 0-13 are recorded, the I/O ports are not music.
+ *
+ * @see PsgPlayer
+ */
+@Slf4j
+public class AyRecorder {
+
+    static final int REGISTERS = 14;
+    static final int SHAPE_REGISTER = 13;
+    // YM: shape register value for "not written this frame", a write restarts the envelope
+    static final int YM_NO_SHAPE = 0xFF;
+
+    static final byte[] PSG_SIGNATURE = {'P', 'S', 'G', 0x1A};
+    static final int PSG_HEADER_SIZE = 16;
+    private static final int PSG_VERSION = 0x10;
+    static final int PSG_END_OF_FRAME = 0xFF;
+    static final int PSG_SKIP_FRAMES = 0xFE;
+    static final int PSG_END_OF_MUSIC = 0xFD;
+
+    private static final int YM_REGISTERS = 16;
+
+    private final int frameRate;
+    private final ByteArrayOutputStream psg = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream ym = new ByteArrayOutputStream();
+    private final int[] registers = new int[REGISTERS];
+    private final byte[] snapshot = new byte[YM_REGISTERS];
+    private boolean shapeWritten;
+    @Getter
+    private int frames;
+
+    /**
+     * @param frameRate frames per second of the capture (interrupt rate, 50 on the Spectrum)
+     */
+    public AyRecorder(int frameRate) {
+        this.frameRate = frameRate;
+    }
+
+    /**
+     * Register write, called by the AY before the write applies.
+     *
+     * @param register register index
+     * @param value    written value
+     */
+    public void write(int register, int value) {
+        if (register >= REGISTERS) {
+            return;
+        }
+        psg.write(register);
+        psg.write(value);
+        registers[register] = value & 0xFF;
+        if (register == SHAPE_REGISTER) {
+            shapeWritten = true;
+        }
+    }
+
+    /**
+     * Frame end (interrupt).
+     */
+    public void endFrame() {
+        psg.write(PSG_END_OF_FRAME);
+        for (int r = 0; r < REGISTERS; r++) {
+            snapshot[r] = (byte) registers[r];
+        }
+        snapshot[SHAPE_REGISTER] = (byte) (shapeWritten ? registers[SHAPE_REGISTER] : YM_NO_SHAPE);
+        ym.write(snapshot, 0, YM_REGISTERS);
+        shapeWritten = false;
+        frames++;
+    }
+
+    /**
+     * Capture as a PSG file.
+     */
+    public byte[] toPsg() {
+        byte[] header = Arrays.copyOf(PSG_SIGNATURE, PSG_HEADER_SIZE);
+        header[4] = PSG_VERSION;
+        header[5] = (byte) frameRate;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PSG_HEADER_SIZE + psg.size() + 1);
+        out.writeBytes(header);
+        out.writeBytes(psg.toByteArray());
+        out.write(PSG_END_OF_MUSIC);
+        return out.toByteArray();
+    }
+
+    /**
+     * Capture as an uncompressed, interleaved YM5 file.
+     *
+     * @param ayClock AY clock, Hz (1773400 on the Spectrum 128)
+     * @param name    song name
+     * @param author  author
+     * @param comment comment
+     */
+    public byte[] toYm(int ayClock, String name, String author, String comment) {
+        byte[] data = ym.toByteArray();
+        byte[] strings = (name + '\0' + author + '\0' + comment + '\0').getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer out = ByteBuffer.allocate(34 + strings.length + data.length + 4); // big-endian
+        out.put("YM5!LeOnArD!".getBytes(StandardCharsets.US_ASCII));
+        out.putInt(frames);
+        out.putInt(1); // attributes: interleaved
+        out.putShort((short) 0); // digidrums
+        out.putInt(ayClock);
+        out.putShort((short) frameRate);
+        out.putInt(0); // loop frame
+        out.putShort((short) 0); // additional data
+        out.put(strings);
+        // Interleaved: all frames of register 0, then register 1, ...
+        for (int r = 0; r < YM_REGISTERS; r++) {
+            for (int f = 0; f < frames; f++) {
+                out.put(data[f * YM_REGISTERS + r]);
+            }
+        }
+        out.put("End!".getBytes(StandardCharsets.US_ASCII));
+        return out.array();
+    }
+
+    public void writePsg(Path path) throws IOException {
+        Files.write(path, toPsg());
+        log.info("Wrote {} frames of AY registers to {}", frames, path);
+    }
+
+    public void writeYm(Path path, int ayClock, String name, String author, String comment) throws IOException {
+        Files.write(path, toYm(ayClock, name, author, comment));
+        log.info("Wrote {} frames of AY registers to {}", frames, path);
+    }
+
+    /**
+     * Drop the capture.
+     */
+    public void clear() {
+        psg.reset();
+        ym.reset();
+        Arrays.fill(registers, 0);
+        shapeWritten = false;
+        frames = 0;
+    }
+
+}
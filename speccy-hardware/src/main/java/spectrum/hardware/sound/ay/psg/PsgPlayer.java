@@ -0,0 +1,187 @@
+package spectrum.hardware.sound.ay.psg;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import spectrum.hardware.sound.ay.AyClockCore;
+import spectrum.hardware.sound.ay.AyCore;
+import spectrum.hardware.sound.mixer.AudioSink;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static spectrum.hardware.sound.ay.AyConstants.REGISTER_COUNT;
+import static spectrum.hardware.sound.ay.psg.AyRecorder.*;
+
+/**
+ * Plays a PSG register log through an {@link AyCore}, without emulating the Z80.
+ * <p>
+ * Every frame the logged register writes are applied to the core and one frame of
+ * samples is rendered, which costs a tiny fraction of running the machine that
+ * produced the music.
+ */
+@Slf4j
+public class PsgPlayer {
+
+    // Spectrum 128 AY clock, half the CPU clock
+    public static final double SPECTRUM_AY_CLOCK = 1_773_400;
+    private static final int DEFAULT_FRAME_RATE = 50;
+
+    private final byte[] psg;
+    @Getter
+    private final AyCore core;
+    @Getter
+    private final int sampleRate;
+    @Getter
+    private final int frameRate;
+    private final double samplesPerFrame;
+
+    private int position;
+    // Frames left to skip (0xFE command)
+    private int skipFrames;
+    private double sampleAcc;
+    @Getter
+    private long frames;
+    @Getter
+    private boolean finished;
+
+    /**
+     * Player on a clock-exact core at the Spectrum 128 AY clock.
+     *
+     * @param psg        PSG file content
+     * @param sampleRate output sample rate
+     */
+    public PsgPlayer(byte[] psg, int sampleRate) {
+        this(psg, new AyClockCore(SPECTRUM_AY_CLOCK, sampleRate), sampleRate);
+    }
+
+    /**
+     * @param psg        PSG file content
+     * @param core       AY core to drive, running at the given sample rate
+     * @param sampleRate output sample rate of the core
+     */
+    public PsgPlayer(byte[] psg, AyCore core, int sampleRate) {
+        if (psg.length < PSG_HEADER_SIZE || !Arrays.equals(psg, 0, 4, PSG_SIGNATURE, 0, 4)) {
+            throw new IllegalArgumentException("Not a PSG file");
+        }
+        this.psg = psg;
+        this.core = core;
+        this.sampleRate = sampleRate;
+        // Header byte 5 holds the player rate from version 10 on, 0 means 50 Hz
+        this.frameRate = (psg[4] & 0xFF) >= 0x10 && psg[5] != 0 ? psg[5] & 0xFF : DEFAULT_FRAME_RATE;
+        this.samplesPerFrame = (double) sampleRate / frameRate;
+        rewind();
+    }
+
+    public static PsgPlayer load(Path psgFile, int sampleRate) throws IOException {
+        return new PsgPlayer(Files.readAllBytes(psgFile), sampleRate);
+    }
+
+    public void rewind() {
+        core.reset();
+        position = PSG_HEADER_SIZE;
+        skipFrames = 0;
+        sampleAcc = 0;
+        frames = 0;
+        finished = false;
+    }
+
+    /**
+     * Samples in the longest frame, the minimum size of a {@link #renderFrame} buffer in stereo pairs.
+     */
+    public int getMaxFrameSamples() {
+        return (int) Math.ceil(samplesPerFrame);
+    }
+
+    /**
+     * Apply the next frame of register writes and render it.
+     *
+     * @param out interleaved stereo buffer for at least {@link #getMaxFrameSamples()} samples
+     * @return number of stereo samples, -1 at the end of the music
+     */
+    public int renderFrame(double[] out) {
+        if (!applyFrame()) {
+            finished = true;
+            return -1;
+        }
+        sampleAcc += samplesPerFrame;
+        int count = (int) sampleAcc;
+        sampleAcc -= count;
+        core.render(out, 0, count);
+        frames++;
+        return count;
+    }
+
+    /**
+     * Render the whole music into a sink, e.g. a WAV file.
+     *
+     * @param sink sink, opened and closed here
+     * @return number of rendered frames
+     */
+    public long renderTo(AudioSink sink) {
+        if (!sink.open(new AudioFormat(sampleRate, 16, 2, true, false))) {
+            return 0;
+        }
+        double[] samples = new double[getMaxFrameSamples() * 2];
+        byte[] pcm = new byte[samples.length * 2];
+        int count;
+        while ((count = renderFrame(samples)) >= 0) {
+            for (int i = 0, b = 0; i < count * 2; i++, b += 2) {
+                int s = (int) Math.clamp(samples[i], Short.MIN_VALUE, Short.MAX_VALUE);
+                pcm[b] = (byte) s;
+                pcm[b + 1] = (byte) (s >> 8);
+            }
+            sink.write(pcm, 0, count * 4);
+        }
+        sink.close();
+        log.info("Rendered {} PSG frames", frames);
+        return frames;
+    }
+
+    /**
+     * Apply register writes up to the next frame end.
+     *
+     * @return false at the end of the music
+     */
+    private boolean applyFrame() {
+        if (skipFrames > 0) {
+            skipFrames--;
+            return true;
+        }
+        while (position < psg.length) {
+            int command = psg[position++] & 0xFF;
+            switch (command) {
+                case PSG_END_OF_FRAME -> {
+                    return true;
+                }
+                case PSG_SKIP_FRAMES -> {
+                    int count = position < psg.length ? psg[position++] & 0xFF : 0;
+                    // This frame is one of the skipped ones
+                    skipFrames = Math.max(0, count * 4 - 1);
+                    return true;
+                }
+                case PSG_END_OF_MUSIC -> {
+                    position = psg.length;
+                    return false;
+                }
+                default -> {
+                    if (position >= psg.length) {
+                        return false;
+                    }
+                    int value = psg[position++] & 0xFF;
+                    if (command < REGISTER_COUNT) {
+                        core.selectRegister(command);
+                        core.writeData(value);
+                    } else {
+                        // Not a register, skip the command and its byte
+                        log.debug("Unknown PSG command 0x{} at {}", Integer.toHexString(command), position - 2);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+}
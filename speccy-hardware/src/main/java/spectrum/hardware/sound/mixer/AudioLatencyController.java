@@ -0,0 +1,120 @@
+package spectrum.hardware.sound.mixer;
+
+import lombok.Getter;
+
+/**
+ * Adaptive output latency for a real-time sink.
+ * <p>
+ * Checked once per emulated frame. An underrun (the line ran dry while the emulation
+ * was running) raises the target latency by {@link #GROW_FRAMES}; after
+ * {@link #STABLE_FRAMES} frames without one it is lowered by {@link #SHRINK_FRAMES},
+ * so the latency settles at the lowest level the host sustains. The queued audio is
+ * kept at the target with a resampling ratio within {@link #MAX_RATIO_CORRECTION}
+ * of 1, small enough to be inaudible.
+ */
+public class AudioLatencyController {
+
+    static final int MIN_TARGET_FRAMES = 512;
+    static final int INITIAL_TARGET_FRAMES = 1024;
+    static final int GROW_FRAMES = 512;
+    static final int SHRINK_FRAMES = 128;
+    // About 10 seconds of emulated frames
+    static final int STABLE_FRAMES = 500;
+    static final double MAX_RATIO_CORRECTION = 0.005;
+    // Ratio correction per unit of relative latency error
+    private static final double RATIO_GAIN = 0.01;
+    // Ratio smoothing per frame
+    private static final double RATIO_SMOOTHING = 0.1;
+    // Longer gaps between frames are pauses, a line that ran dry meanwhile is no underrun
+    private static final long MAX_GAP_NS = 100_000_000;
+
+    private final int sampleRate;
+    private final int maxTargetFrames;
+
+    @Getter
+    private volatile int targetFrames = INITIAL_TARGET_FRAMES;
+    @Getter
+    private volatile int queuedFrames;
+    // Input frames consumed per output frame, mixer thread reads it
+    @Getter
+    private volatile double ratio = 1.0;
+
+    @Getter
+    private volatile long underruns;
+    @Getter
+    private volatile long overruns;
+
+    private volatile boolean ranDry;
+    private long lastDropped;
+    private int stableFrames;
+    private long lastUpdateNs;
+
+    /**
+     * @param sampleRate      output sample rate
+     * @param maxTargetFrames largest target, bounded by the line buffer
+     */
+    public AudioLatencyController(int sampleRate, int maxTargetFrames) {
+        this.sampleRate = sampleRate;
+        this.maxTargetFrames = Math.max(MIN_TARGET_FRAMES, maxTargetFrames);
+        this.targetFrames = Math.min(INITIAL_TARGET_FRAMES, this.maxTargetFrames);
+    }
+
+    /**
+     * The line was found empty. Mixer thread.
+     */
+    void lineRanDry() {
+        ranDry = true;
+    }
+
+    /**
+     * Per-frame update. Emulation thread.
+     *
+     * @param nowNs        current {@link System#nanoTime()}
+     * @param queued       frames queued in the line and the active channels
+     * @param droppedTotal frames dropped so far by full channels
+     */
+    void update(long nowNs, int queued, long droppedTotal) {
+        queuedFrames = queued;
+        if (lastUpdateNs == 0 || nowNs - lastUpdateNs > MAX_GAP_NS) {
+            ranDry = false;
+        }
+        lastUpdateNs = nowNs;
+        if (ranDry) {
+            ranDry = false;
+            underruns++;
+            targetFrames = Math.min(maxTargetFrames, targetFrames + GROW_FRAMES);
+            stableFrames = 0;
+        } else if (++stableFrames >= STABLE_FRAMES) {
+            targetFrames = Math.max(MIN_TARGET_FRAMES, targetFrames - SHRINK_FRAMES);
+            stableFrames = 0;
+        }
+        if (droppedTotal > lastDropped) {
+            overruns++;
+            lastDropped = droppedTotal;
+        }
+        double error = (double) (queued - targetFrames) / targetFrames;
+        double wanted = 1 + Math.clamp(error * RATIO_GAIN, -MAX_RATIO_CORRECTION, MAX_RATIO_CORRECTION);
+        ratio += (wanted - ratio) * RATIO_SMOOTHING;
+    }
+
+    /**
+     * Queued audio relative to the target, 0.5 at the target, clamped to 0..1.
+     */
+    public double getTargetFill() {
+        return Math.clamp(queuedFrames / (2.0 * targetFrames), 0, 1);
+    }
+
+    public double getLatencyMs() {
+        return queuedFrames * 1000.0 / sampleRate;
+    }
+
+    public double getTargetLatencyMs() {
+        return targetFrames * 1000.0 / sampleRate;
+    }
+
+    public void resetStats() {
+        underruns = 0;
+        overruns = 0;
+    }
+
+}
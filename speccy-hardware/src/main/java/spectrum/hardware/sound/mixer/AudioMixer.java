@@ -0,0 +1,301 @@
+package spectrum.hardware.sound.mixer;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import spectrum.hardware.machine.Device;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mixes all audio sources into a single 16-bit stereo {@link AudioSink}.
+ * <p>
+ * Every source writes into its own {@link MixerChannel} ring without blocking.
+ * With a real-time sink (the sound card line) one audio thread sums the channels
+ * with their gains and is the only one that writes to the line, so a full device
+ * buffer never stalls the emulation thread. An offline sink (file) is fed from the
+ * emulation thread at {@link #endFrame()}, without waiting for real time.
+ * <p>
+ * Active channels (beeper, AY) drive the mixer: only frames that all of them have
+ * produced are mixed, the other channels are mixed along. When no active channel has
+ * frames (paused, speed-up), the other channels are mixed only while a real-time sink
+ * runs low.
+ * <p>
+ * The real-time latency is adaptive, see {@link AudioLatencyController}: the line
+ * buffer is large, the queued audio is held at the controller target by a slight
+ * resampling of the mixed stream and, with audio-synced pacing, by the emulation
+ * speed through {@link #getBufferFill()}.
+ * <p>
+ * An optional {@link AudioPostProcessor} filters every mixed block before output.
+ */
+@Slf4j
+public class AudioMixer implements Device {
+
+    static final int GAIN_BITS = 12;
+    static final int UNITY_GAIN = 1 << GAIN_BITS;
+
+    public static final int DEFAULT_CHANNEL_CAPACITY = 8192;
+    // Line buffer, the upper bound of the adaptive latency, about 186 ms at 44.1 kHz
+    private static final int LINE_BUFFER_FRAMES = 8192;
+    static final int BLOCK_FRAMES = 256;
+    private static final int FRAME_BYTES = 4;
+    private static final double LOW_FILL = 0.25;
+    private static final long IDLE_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_OUTPUT_FRAMES = LinearResampler.maxOutput(BLOCK_FRAMES,
+            1 - AudioLatencyController.MAX_RATIO_CORRECTION);
+
+    @Getter
+    private final int sampleRate;
+    private final AudioFormat format;
+
+    private volatile MixerChannel[] channels = new MixerChannel[0];
+
+    private volatile AudioSink sink;
+    private Thread thread;
+    private volatile boolean running;
+    // Real-time sinks only, null otherwise
+    @Getter
+    private volatile AudioLatencyController latency;
+    // Optional stage on the mixed blocks, null for none
+    @Getter
+    @Setter
+    private volatile AudioPostProcessor postProcessor;
+
+    // Mixer thread only (emulation thread with an offline sink)
+    private final int[] acc = new int[BLOCK_FRAMES * 2];
+    private final LinearResampler resampler = new LinearResampler();
+    private final int[] resampled = new int[MAX_OUTPUT_FRAMES * 2];
+    private final byte[] out = new byte[MAX_OUTPUT_FRAMES * FRAME_BYTES];
+
+    public AudioMixer(int sampleRate) {
+        this.sampleRate = sampleRate;
+        this.format = new AudioFormat(sampleRate, 16, 2, true, false);
+    }
+
+    /**
+     * Add a source channel with the default capacity.
+     *
+     * @param name source name
+     * @return new channel
+     */
+    public MixerChannel addChannel(String name) {
+        return addChannel(name, DEFAULT_CHANNEL_CAPACITY);
+    }
+
+    /**
+     * Add a source channel.
+     *
+     * @param name     source name
+     * @param capacity ring capacity in frames
+     * @return new channel
+     */
+    public synchronized MixerChannel addChannel(String name, int capacity) {
+        MixerChannel channel = new MixerChannel(name, capacity);
+        MixerChannel[] current = channels;
+        MixerChannel[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = channel;
+        channels = updated;
+        return channel;
+    }
+
+    public synchronized void removeChannel(MixerChannel channel) {
+        channels = Arrays.stream(channels)
+                .filter(c -> c != channel)
+                .toArray(MixerChannel[]::new);
+    }
+
+    @Override
+    public void init() {
+        // Nothing to do
+    }
+
+    @Override
+    public void reset() {
+        for (MixerChannel channel : channels) {
+            channel.clear();
+        }
+    }
+
+    /**
+     * Open the sound card line and start the audio thread.
+     */
+    @Override
+    public void open() {
+        open(new LineSink(LINE_BUFFER_FRAMES * FRAME_BYTES));
+    }
+
+    /**
+     * Open the given sink, real-time sinks get the audio thread.
+     *
+     * @param audioSink sink to mix into
+     */
+    public synchronized void open(AudioSink audioSink) {
+        if (running) {
+            return;
+        }
+        if (!audioSink.open(format)) {
+            return;
+        }
+        sink = audioSink;
+        running = true;
+        AudioPostProcessor post = postProcessor;
+        if (post != null) {
+            post.reset();
+        }
+        if (audioSink.isRealTime()) {
+            int bufferFrames = audioSink.getBufferSize() / FRAME_BYTES;
+            latency = new AudioLatencyController(sampleRate, bufferFrames - 2 * MAX_OUTPUT_FRAMES);
+            thread = new Thread(this::run, "audio-mixer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        } else {
+            endFrame();
+        }
+        sink.close();
+        sink = null;
+        latency = null;
+    }
+
+    /**
+     * True while a sink is open; sources may skip rendering otherwise.
+     */
+    public boolean isOpen() {
+        return running;
+    }
+
+    /**
+     * Queued real-time audio relative to the adaptive target latency, 0.5 at the target.
+     *
+     * @return fill level 0..1, negative when no real-time sink is open
+     */
+    public double getBufferFill() {
+        AudioLatencyController l = latency;
+        if (!running || l == null) {
+            return -1;
+        }
+        return l.getTargetFill();
+    }
+
+    /**
+     * End of the emulated frame. A real-time sink updates the latency control,
+     * an offline sink receives everything mixed so far. Emulation thread.
+     */
+    public void endFrame() {
+        AudioSink s = sink;
+        if (s == null) {
+            return;
+        }
+        if (s.isRealTime()) {
+            updateLatency(s);
+            return;
+        }
+        int frames;
+        while ((frames = Math.min(BLOCK_FRAMES, pendingFrames(false))) > 0) {
+            sum(frames);
+            encode(acc, frames);
+            s.write(out, 0, frames * FRAME_BYTES);
+        }
+    }
+
+    private void updateLatency(AudioSink s) {
+        AudioLatencyController l = latency;
+        if (l == null) {
+            return;
+        }
+        int queued = (s.getBufferSize() - s.available()) / FRAME_BYTES;
+        int pending = Integer.MAX_VALUE;
+        long dropped = 0;
+        for (MixerChannel channel : channels) {
+            if (channel.isActive()) {
+                pending = Math.min(pending, channel.available());
+            }
+            dropped += channel.getDroppedFrames();
+        }
+        l.update(System.nanoTime(), queued + (pending == Integer.MAX_VALUE ? 0 : pending), dropped);
+    }
+
+    private void run() {
+        AudioSink s = sink;
+        AudioLatencyController l = latency;
+        while (running) {
+            double fill = s.getBufferFill();
+            if (fill <= 0) {
+                l.lineRanDry();
+            }
+            double ratio = l.getRatio();
+            int space = s.available() / FRAME_BYTES;
+            // Input that fits the line once resampled
+            int room = (int) ((space - 1) * ratio) - 1;
+            int frames = Math.min(room, Math.min(BLOCK_FRAMES, pendingFrames(fill < LOW_FILL)));
+            if (frames <= 0) {
+                LockSupport.parkNanos(IDLE_NS);
+                continue;
+            }
+            sum(frames);
+            int output = resampler.process(acc, frames, ratio, resampled);
+            encode(resampled, output);
+            s.write(out, 0, output * FRAME_BYTES);
+        }
+    }
+
+    /**
+     * Frames ready to mix: what all active channels have. When the active channels
+     * have nothing, the other channels count only if the sink runs low.
+     */
+    private int pendingFrames(boolean sinkLow) {
+        int ready = Integer.MAX_VALUE;
+        int others = 0;
+        for (MixerChannel channel : channels) {
+            if (channel.isActive()) {
+                ready = Math.min(ready, channel.available());
+            } else {
+                others = Math.max(others, channel.available());
+            }
+        }
+        if (ready != Integer.MAX_VALUE && ready > 0) {
+            return ready;
+        }
+        return sinkLow ? others : 0;
+    }
+
+    private void sum(int frames) {
+        Arrays.fill(acc, 0, frames * 2, 0);
+        for (MixerChannel channel : channels) {
+            channel.mixInto(acc, frames);
+        }
+        AudioPostProcessor post = postProcessor;
+        if (post != null) {
+            post.process(acc, frames);
+        }
+    }
+
+    private void encode(int[] mixed, int frames) {
+        for (int i = 0, b = 0; i < frames * 2; i++, b += 2) {
+            int s = Math.clamp(mixed[i] >> GAIN_BITS, Short.MIN_VALUE, Short.MAX_VALUE);
+            out[b] = (byte) s;
+            out[b + 1] = (byte) (s >> 8);
+        }
+    }
+
+}
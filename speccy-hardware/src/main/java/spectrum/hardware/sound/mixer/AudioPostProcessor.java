@@ -0,0 +1,157 @@
+package spectrum.hardware.sound.mixer;
+
+import lombok.Getter;
+
+/**
+ * Post-processing of the mixed stereo stream, one block at a time.
+ * <p>
+ * The block is split into planar float channels and every stage runs as its own
+ * loop over the block: DC blocking, the speaker low-pass, stereo width and gain.
+ * The recursive filters carry their state from block to block; the width and gain
+ * stages are plain element-wise loops the JIT vectorizes. Settings may change from
+ * any thread, they are read once per block.
+ */
+public class AudioPostProcessor {
+
+    // DC blocker pole, about 35 Hz at 44.1 kHz
+    private static final float DC_POLE = 0.995f;
+
+    private final int sampleRate;
+    private final float[] left;
+    private final float[] right;
+
+    @Getter
+    private volatile boolean dcBlocking = true;
+    // Speaker low-pass cutoff in Hz, 0 is off
+    @Getter
+    private volatile double speakerCutoff;
+    private volatile float lowPassAlpha;
+    // 1 is the source stereo, 0 is mono
+    @Getter
+    private volatile double stereoWidth = 1.0;
+    @Getter
+    private volatile double gain = 1.0;
+
+    // Filter state per side
+    private float dcInLeft;
+    private float dcInRight;
+    private float dcOutLeft;
+    private float dcOutRight;
+    private float lowLeft;
+    private float lowRight;
+
+    /**
+     * @param sampleRate output sample rate
+     */
+    public AudioPostProcessor(int sampleRate) {
+        this.sampleRate = sampleRate;
+        this.left = new float[AudioMixer.BLOCK_FRAMES];
+        this.right = new float[AudioMixer.BLOCK_FRAMES];
+    }
+
+    public void setDcBlocking(boolean dcBlocking) {
+        this.dcBlocking = dcBlocking;
+    }
+
+    /**
+     * @param cutoff cutoff frequency in Hz, 0 (or below) to disable the low-pass
+     */
+    public void setSpeakerCutoff(double cutoff) {
+        double hz = Math.clamp(cutoff, 0, sampleRate / 2.0);
+        speakerCutoff = hz;
+        lowPassAlpha = hz <= 0 ? 0 : (float) (1 - Math.exp(-2 * Math.PI * hz / sampleRate));
+    }
+
+    public void setStereoWidth(double stereoWidth) {
+        this.stereoWidth = Math.clamp(stereoWidth, 0d, 1d);
+    }
+
+    public void setGain(double gain) {
+        this.gain = Math.clamp(gain, 0d, 2d);
+    }
+
+    /**
+     * Clear the filter state, e.g. when the output restarts.
+     */
+    public void reset() {
+        dcInLeft = dcInRight = dcOutLeft = dcOutRight = 0;
+        lowLeft = lowRight = 0;
+    }
+
+    /**
+     * Process an interleaved stereo block in place.
+     *
+     * @param samples interleaved left/right samples
+     * @param frames  stereo frames in the block, at most {@link AudioMixer#BLOCK_FRAMES}
+     */
+    public void process(int[] samples, int frames) {
+        for (int i = 0; i < frames; i++) {
+            left[i] = samples[i * 2];
+            right[i] = samples[i * 2 + 1];
+        }
+        if (dcBlocking) {
+            dcBlock(frames);
+        }
+        float alpha = lowPassAlpha;
+        if (alpha > 0) {
+            lowPass(frames, alpha);
+        }
+        float g = (float) gain;
+        float width = (float) stereoWidth;
+        if (width < 1) {
+            // Mid/side: side scaled by the width, the gain folded into both
+            float mid = g * (1 + width) / 2;
+            float side = g * (1 - width) / 2;
+            for (int i = 0; i < frames; i++) {
+                float l = left[i];
+                float r = right[i];
+                left[i] = l * mid + r * side;
+                right[i] = r * mid + l * side;
+            }
+        } else if (g != 1) {
+            for (int i = 0; i < frames; i++) {
+                left[i] *= g;
+                right[i] *= g;
+            }
+        }
+        for (int i = 0; i < frames; i++) {
+            samples[i * 2] = (int) left[i];
+            samples[i * 2 + 1] = (int) right[i];
+        }
+    }
+
+    private void dcBlock(int frames) {
+        float inL = dcInLeft;
+        float outL = dcOutLeft;
+        float inR = dcInRight;
+        float outR = dcOutRight;
+        for (int i = 0; i < frames; i++) {
+            float l = left[i];
+            float r = right[i];
+            outL = l - inL + DC_POLE * outL;
+            outR = r - inR + DC_POLE * outR;
+            inL = l;
+            inR = r;
+            left[i] = outL;
+            right[i] = outR;
+        }
+        dcInLeft = inL;
+        dcOutLeft = outL;
+        dcInRight = inR;
+        dcOutRight = outR;
+    }
+
+    private void lowPass(int frames, float alpha) {
+        float l = lowLeft;
+        float r = lowRight;
+        for (int i = 0; i < frames; i++) {
+            l += alpha * (left[i] - l);
+            r += alpha * (right[i] - r);
+            left[i] = l;
+            right[i] = r;
+        }
+        lowLeft = l;
+        lowRight = r;
+    }
+
+}
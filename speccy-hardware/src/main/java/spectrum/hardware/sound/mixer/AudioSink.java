@@ -0,0 +1,46 @@
+package spectrum.hardware.sound.mixer;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Destination of the mixed audio.
+ * <p>
+ * A real-time sink (sound card line) is fed by the mixer thread as it drains,
+ * an offline sink (file) is fed from the emulation thread at every frame end,
+ * as fast as the emulation runs.
+ */
+public interface AudioSink {
+
+    /**
+     * @param format mixer output format
+     * @return false if the sink could not be opened
+     */
+    boolean open(AudioFormat format);
+
+    /**
+     * True if the sink consumes audio at the sample rate and the mixer has to wait for it.
+     */
+    boolean isRealTime();
+
+    /**
+     * Bytes that can be written without blocking.
+     */
+    int available();
+
+    void write(byte[] data, int offset, int length);
+
+    /**
+     * Buffer size in bytes, 0 for sinks that do not play in real time.
+     */
+    int getBufferSize();
+
+    /**
+     * Fill level of the sink buffer, 0 (empty) to 1 (full).
+     *
+     * @return fill level, negative when the sink does not play in real time
+     */
+    double getBufferFill();
+
+    void close();
+
+}
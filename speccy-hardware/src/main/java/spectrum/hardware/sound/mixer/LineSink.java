@@ -0,0 +1,70 @@
+package spectrum.hardware.sound.mixer;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.SourceDataLine;
+
+import static spectrum.hardware.sound.SoundUtils.initializeAudio;
+
+/**
+ * Sound card output through a {@link SourceDataLine}.
+ */
+public class LineSink implements AudioSink {
+
+    private final int bufferBytes;
+    private volatile SourceDataLine line;
+
+    /**
+     * @param bufferBytes line buffer size in bytes
+     */
+    public LineSink(int bufferBytes) {
+        this.bufferBytes = bufferBytes;
+    }
+
+    @Override
+    public boolean open(AudioFormat format) {
+        line = initializeAudio(format, bufferBytes);
+        return line != null;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return true;
+    }
+
+    @Override
+    public int available() {
+        return line.available();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        line.write(data, offset, length);
+    }
+
+    @Override
+    public int getBufferSize() {
+        SourceDataLine l = line;
+        return l == null ? 0 : l.getBufferSize();
+    }
+
+    @Override
+    public double getBufferFill() {
+        SourceDataLine l = line;
+        if (l == null) {
+            return -1;
+        }
+        return 1 - (double) l.available() / l.getBufferSize();
+    }
+
+    @Override
+    public void close() {
+        SourceDataLine l = line;
+        line = null;
+        if (l != null) {
+            l.drain();
+            l.stop();
+            l.close();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package spectrum.hardware.sound.mixer;
+
+/**
+ * Linear-interpolating resampler for the mixed stereo stream, for ratios close to 1.
+ * <p>
+ * Input and output are interleaved stereo blocks; the last input frame and the
+ * fractional position carry over, so consecutive blocks join without clicks.
+ */
+class LinearResampler {
+
+    private int prevLeft;
+    private int prevRight;
+    // Position of the next output frame between input frames index - 1 and index
+    private double frac;
+    // Input frames to skip at the start of the next block
+    private int skip;
+
+    /**
+     * Largest output for an input block at the given ratio.
+     */
+    static int maxOutput(int inputFrames, double ratio) {
+        return (int) Math.ceil(inputFrames / ratio) + 1;
+    }
+
+    /**
+     * @param in          interleaved stereo input
+     * @param inputFrames input frames
+     * @param ratio       input frames per output frame
+     * @param out         interleaved stereo output, at least {@link #maxOutput} frames
+     * @return output frames
+     */
+    int process(int[] in, int inputFrames, double ratio, int[] out) {
+        int frames = 0;
+        int i = skip;
+        while (i < inputFrames) {
+            int l0 = i == 0 ? prevLeft : in[(i - 1) * 2];
+            int r0 = i == 0 ? prevRight : in[(i - 1) * 2 + 1];
+            int l1 = in[i * 2];
+            int r1 = in[i * 2 + 1];
+            out[frames * 2] = (int) (l0 + (l1 - l0) * frac);
+            out[frames * 2 + 1] = (int) (r0 + (r1 - r0) * frac);
+            frames++;
+            frac += ratio;
+            int step = (int) frac;
+            frac -= step;
+            i += step;
+        }
+        skip = i - inputFrames;
+        if (inputFrames > 0) {
+            prevLeft = in[(inputFrames - 1) * 2];
+            prevRight = in[(inputFrames - 1) * 2 + 1];
+        }
+        return frames;
+    }
+
+}
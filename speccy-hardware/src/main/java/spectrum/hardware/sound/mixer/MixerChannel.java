@@ -0,0 +1,129 @@
+package spectrum.hardware.sound.mixer;
+
+import lombok.Getter;
+
+/**
+ * One audio source of the {@link AudioMixer}.
+ * <p>
+ * A lock-free single-producer/single-consumer ring of 16-bit stereo frames: the source
+ * thread writes, the mixer thread reads. Writes never block, when the ring is full the
+ * frame is dropped and counted. The gain is applied by the mixer.
+ */
+public class MixerChannel {
+
+    @Getter
+    private final String name;
+    private final short[] ring;
+    private final int mask;
+
+    // Frame positions, each written by one thread only
+    private volatile long writePos;
+    private volatile long readPos;
+
+    // Source is producing in emulation time, the mixer waits for its frames
+    @Getter
+    private volatile boolean active;
+    @Getter
+    private volatile double gain = 1.0;
+    @Getter
+    private volatile boolean muted;
+    @Getter
+    private volatile long droppedFrames;
+
+    /**
+     * @param name     source name, for diagnostics
+     * @param capacity ring capacity in frames, rounded up to a power of two
+     */
+    MixerChannel(String name, int capacity) {
+        this.name = name;
+        int frames = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new short[frames * 2];
+        this.mask = frames - 1;
+    }
+
+    /**
+     * Write a mono frame. Source thread.
+     *
+     * @return false if the ring was full and the frame was dropped
+     */
+    public boolean write(short sample) {
+        return write(sample, sample);
+    }
+
+    /**
+     * Write a stereo frame. Source thread.
+     *
+     * @return false if the ring was full and the frame was dropped
+     */
+    public boolean write(short left, short right) {
+        long w = writePos;
+        if (w - readPos > mask) {
+            droppedFrames++;
+            return false;
+        }
+        int i = (int) (w & mask) << 1;
+        ring[i] = left;
+        ring[i + 1] = right;
+        writePos = w + 1;
+        return true;
+    }
+
+    /**
+     * Frames waiting for the mixer.
+     */
+    public int available() {
+        return (int) (writePos - readPos);
+    }
+
+    /**
+     * Free space in frames. Source thread.
+     */
+    public int free() {
+        return ring.length / 2 - available();
+    }
+
+    public void setGain(double gain) {
+        this.gain = Math.max(0, gain);
+    }
+
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    /**
+     * Mark the source as producing in emulation time. The mixer mixes only frames that
+     * all active channels have, so bursts written by different sources stay aligned.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * Add up to count frames, scaled by the gain, into an interleaved stereo accumulator.
+     * Missing frames are left as they are (silence). Mixer thread.
+     *
+     * @return number of frames consumed
+     */
+    int mixInto(int[] acc, int count) {
+        long r = readPos;
+        int frames = (int) Math.min(count, writePos - r);
+        if (!muted) {
+            int g = (int) Math.round(gain * AudioMixer.UNITY_GAIN);
+            for (int f = 0, a = 0; f < frames; f++, a += 2) {
+                int i = (int) ((r + f) & mask) << 1;
+                acc[a] += ring[i] * g;
+                acc[a + 1] += ring[i + 1] * g;
+            }
+        }
+        readPos = r + frames;
+        return frames;
+    }
+
+    /**
+     * Drop buffered frames. Mixer thread, or any thread while the source is idle.
+     */
+    void clear() {
+        readPos = writePos;
+    }
+
+}
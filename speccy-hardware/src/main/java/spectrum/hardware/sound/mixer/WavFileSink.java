@@ -0,0 +1,190 @@
+package spectrum.hardware.sound.mixer;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Offline sink writing the mixed output to a 16-bit PCM WAV file.
+ * <p>
+ * The emulation thread only copies into one of a few preallocated buffers; full
+ * buffers are written to a {@link FileChannel} by a background writer. The header
+ * sizes are patched on {@link #close()}. Nothing waits for real time, so a tune
+ * renders as fast as the emulation runs, e.g. in a headless machine.
+ */
+@Slf4j
+public class WavFileSink implements AudioSink {
+
+    private static final int HEADER_SIZE = 44;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFER_COUNT = 4;
+
+    @Getter
+    private final Path path;
+    private FileChannel channel;
+    private ExecutorService writer;
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private ByteBuffer current;
+    private AudioFormat format;
+    @Getter
+    private long dataBytes;
+    private volatile IOException writeError;
+
+    public WavFileSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public boolean open(AudioFormat format) {
+        try {
+            this.format = format;
+            channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+            // Placeholder, sizes are known on close
+            channel.write(header(0), 0);
+            channel.position(HEADER_SIZE);
+        } catch (IOException e) {
+            log.error("Cannot open wav file {}", path, e);
+            return false;
+        }
+        freeBuffers.clear();
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        current = null;
+        dataBytes = 0;
+        writeError = null;
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "wav-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Recording audio to {}", path);
+        return true;
+    }
+
+    @Override
+    public boolean isRealTime() {
+        return false;
+    }
+
+    @Override
+    public int available() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        while (length > 0) {
+            if (current == null) {
+                current = takeBuffer();
+            }
+            int n = Math.min(length, current.remaining());
+            current.put(data, offset, n);
+            offset += n;
+            length -= n;
+            dataBytes += n;
+            if (!current.hasRemaining()) {
+                submit(current);
+                current = null;
+            }
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return 0;
+    }
+
+    @Override
+    public double getBufferFill() {
+        return -1;
+    }
+
+    /**
+     * Write pending buffers, patch the header and close the file.
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        if (current != null) {
+            submit(current);
+            current = null;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.error("Wav writer did not finish: {}", path);
+            }
+            channel.write(header(dataBytes), 0);
+            channel.close();
+        } catch (IOException e) {
+            log.error("Cannot finish wav file {}", path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) {
+            log.error("Wav file {} is incomplete", path, writeError);
+        }
+        channel = null;
+        log.info("Recorded {} bytes of audio to {}", dataBytes, path);
+    }
+
+    private ByteBuffer takeBuffer() {
+        try {
+            // Blocks only if the writer is BUFFER_COUNT buffers behind
+            return freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    private void submit(ByteBuffer buffer) {
+        buffer.flip();
+        writer.execute(() -> {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                writeError = e;
+            }
+            buffer.clear();
+            freeBuffers.offer(buffer);
+        });
+    }
+
+    private ByteBuffer header(long dataSize) {
+        int channels = format.getChannels();
+        int bits = format.getSampleSizeInBits();
+        int rate = (int) format.getSampleRate();
+        int blockAlign = channels * bits / 8;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes()).putInt((int) (36 + dataSize)).put("WAVE".getBytes());
+        header.put("fmt ".getBytes()).putInt(16)
+                .putShort((short) 1) // PCM
+                .putShort((short) channels)
+                .putInt(rate)
+                .putInt(rate * blockAlign)
+                .putShort((short) blockAlign)
+                .putShort((short) bits);
+        header.put("data".getBytes()).putInt((int) dataSize);
+        return header.flip();
+    }
+
+}
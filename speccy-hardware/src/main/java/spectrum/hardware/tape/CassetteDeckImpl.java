@@ -12,6 +12,7 @@ import spectrum.hardware.tape.playback.TapFilePlayback;
 import spectrum.hardware.tape.record.TapeRecordListener;
 import spectrum.hardware.tape.record.TapeRecorder;
 import spectrum.hardware.tape.tap.TapBlock;
+import spectrum.hardware.ula.ClockEventScheduler;
 import spectrum.hardware.ula.ClockListener;
 import spectrum.hardware.ula.InPortListener;
 import spectrum.hardware.ula.OutPortListener;
@@ -48,6 +49,8 @@ public class CassetteDeckImpl
     private final TapeRecorder tapeRecorder;
 
     private volatile long tStates;
+    // Motor switch requested off the emulation thread, applied at the next clock sync
+    private final AtomicReference<Boolean> pendingMotor = new AtomicReference<>();
 
     public CassetteDeckImpl() {
         this.tapeFilePlayback = new AtomicReference<>(silentToneSignal);
@@ -105,15 +108,40 @@ public class CassetteDeckImpl
     @Override
     public void ticks(long tStates, int delta) {
         this.tStates = tStates;
+        Boolean motor = pendingMotor.getAndSet(null);
+        if (motor != null) {
+            switchMotor(motor);
+        }
+    }
+
+    @Override
+    public long nextEventTStates(long tStates) {
+        // EAR/MIC only need the T-state synced by the ULA before port I/O
+        return ClockEventScheduler.NEVER;
     }
 
     // ========== Playback ==========
 
+    /**
+     * Switch the motor at the next clock sync, which the ULA does before port I/O and
+     * at the frame end. The tape then starts at the live T-state of the emulation thread,
+     * not at the last sync point seen by the caller.
+     */
     @Override
     public void setMotor(boolean on) {
+        pendingMotor.set(on);
+        eventsReceivers.forEach(l -> l.onTapeMotorChanged(on));
+    }
+
+    private void switchMotor(boolean on) {
         withTapeFile().setMotor(on, tStates);
         pushBack = on;
-        eventsReceivers.forEach(l -> l.onTapeMotorChanged(on));
+    }
+
+    private void stopMotor() {
+        pendingMotor.set(null);
+        switchMotor(false);
+        eventsReceivers.forEach(l -> l.onTapeMotorChanged(false));
     }
 
     @Override
@@ -202,7 +230,8 @@ public class CassetteDeckImpl
 
     @Override
     public void onTapeFinished(boolean success) {
-        setMotor(false);
+        // Called while reading the tape, stop it at once
+        stopMotor();
         eventsReceivers.forEach(listener -> listener.onTapeFinished(success));
     }
 
@@ -215,7 +244,7 @@ public class CassetteDeckImpl
 
     @Override
     public void reset() {
-        setMotor(false);
+        stopMotor();
         tapeFilePlayback.set(silentToneSignal);
         tStates = 0;
         if (tapeRecorder.isRecording()) {
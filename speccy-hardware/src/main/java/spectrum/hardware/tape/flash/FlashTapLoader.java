@@ -6,7 +6,6 @@ import lombok.extern.slf4j.Slf4j;
 import spectrum.hardware.cpu.AddressHookListener;
 import spectrum.hardware.cpu.CPU;
 import spectrum.hardware.machine.HardwareProvider;
-import spectrum.hardware.machine.Machine;
 import spectrum.hardware.memory.Memory;
 import spectrum.hardware.tape.model.TapeFile;
 import spectrum.hardware.tape.model.TapeSection;
@@ -40,7 +39,7 @@ public class FlashTapLoader {
             log.error("Tape file has no data");
             return;
         }
-        Machine.withHardwareProvider(this::fastLoad);
+        fastLoad(hardwareProvider);
     }
 
     @SneakyThrows
@@ -4,4 +4,12 @@ public interface AddressHookController {
 
     void checkAddress(int address);
 
+    /**
+     * An opcode fetch at the address may trigger the hook. Fetches that are not checked
+     * must not skip such addresses, unknown controllers hook them all.
+     */
+    default boolean isHooked(int address) {
+        return true;
+    }
+
 }
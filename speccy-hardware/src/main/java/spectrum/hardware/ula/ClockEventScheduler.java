@@ -0,0 +1,166 @@
+package spectrum.hardware.ula;
+
+import java.util.Arrays;
+
+/**
+ * Event scheduler for clock listeners.
+ * <p>
+ * Every listener tells the T-state at which it needs the next service
+ * ({@link ClockListener#nextEventTStates(long)}). The clock only dispatches
+ * when it crosses the earliest pending event, the listener then receives all
+ * T-states elapsed since its previous service in one {@link ClockListener#ticks} call.
+ * <p>
+ * Between events listeners are brought up to date with {@link #sync(long)},
+ * the ULA does it before port I/O and at the end of the frame, and with
+ * {@link #sync(ClockListener, long)} for the video before screen memory writes.
+ */
+public class ClockEventScheduler {
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private ClockListener[] listeners = new ClockListener[0];
+    private long[] lastTStates = new long[0];
+    private long[] dueTStates = new long[0];
+
+    private long nextEventTStates = NEVER;
+
+    public void addListener(ClockListener listener, long tStates) {
+        if (indexOf(listener) >= 0) {
+            return;
+        }
+        int n = listeners.length;
+        listeners = Arrays.copyOf(listeners, n + 1);
+        lastTStates = Arrays.copyOf(lastTStates, n + 1);
+        dueTStates = Arrays.copyOf(dueTStates, n + 1);
+        listeners[n] = listener;
+        lastTStates[n] = tStates;
+        dueTStates[n] = listener.nextEventTStates(tStates);
+        nextEventTStates = Math.min(nextEventTStates, dueTStates[n]);
+    }
+
+    public void removeListener(ClockListener listener) {
+        int idx = indexOf(listener);
+        if (idx < 0) {
+            return;
+        }
+        int n = listeners.length - 1;
+        ClockListener[] newListeners = new ClockListener[n];
+        long[] newLast = new long[n];
+        long[] newDue = new long[n];
+        for (int i = 0, j = 0; i <= n; i++) {
+            if (i != idx) {
+                newListeners[j] = listeners[i];
+                newLast[j] = lastTStates[i];
+                newDue[j] = dueTStates[i];
+                j++;
+            }
+        }
+        listeners = newListeners;
+        lastTStates = newLast;
+        dueTStates = newDue;
+        updateNextEvent();
+    }
+
+    /**
+     * Earliest T-state at which any listener needs service.
+     */
+    public long getNextEventTStates() {
+        return nextEventTStates;
+    }
+
+    /**
+     * Service listeners whose event is due.
+     *
+     * @param tStates current T-state
+     */
+    public void dispatch(long tStates) {
+        long next = NEVER;
+        for (int i = 0; i < listeners.length; i++) {
+            if (tStates >= dueTStates[i]) {
+                service(i, tStates);
+            }
+            next = Math.min(next, dueTStates[i]);
+        }
+        nextEventTStates = next;
+    }
+
+    /**
+     * Bring every listener up to the current T-state and re-read its next event.
+     *
+     * @param tStates current T-state
+     */
+    public void sync(long tStates) {
+        long next = NEVER;
+        for (int i = 0; i < listeners.length; i++) {
+            service(i, tStates);
+            next = Math.min(next, dueTStates[i]);
+        }
+        nextEventTStates = next;
+    }
+
+    /**
+     * Bring a single listener up to the current T-state, e.g. the video before a screen write.
+     *
+     * @param listener listener to sync
+     * @param tStates  current T-state
+     */
+    public void sync(ClockListener listener, long tStates) {
+        int idx = indexOf(listener);
+        if (idx >= 0) {
+            service(idx, tStates);
+            // Cached next event may only get earlier here, a later one is fixed on the next dispatch
+            nextEventTStates = Math.min(nextEventTStates, dueTStates[idx]);
+        }
+    }
+
+    /**
+     * Re-read next events without servicing, after listener state changed (e.g. by a port write).
+     *
+     * @param tStates current T-state
+     */
+    public void reschedule(long tStates) {
+        for (int i = 0; i < listeners.length; i++) {
+            dueTStates[i] = listeners[i].nextEventTStates(tStates);
+        }
+        updateNextEvent();
+    }
+
+    public void reset(long tStates) {
+        Arrays.fill(lastTStates, tStates);
+        reschedule(tStates);
+    }
+
+    public void addressOnBus(int address, int tstates) {
+        for (ClockListener listener : listeners) {
+            listener.addressOnBus(address, tstates);
+        }
+    }
+
+    private void service(int idx, long tStates) {
+        long delta = tStates - lastTStates[idx];
+        ClockListener listener = listeners[idx];
+        if (delta > 0) {
+            lastTStates[idx] = tStates;
+            listener.ticks(tStates, (int) delta);
+        }
+        dueTStates[idx] = listener.nextEventTStates(tStates);
+    }
+
+    private void updateNextEvent() {
+        long next = NEVER;
+        for (long due : dueTStates) {
+            next = Math.min(next, due);
+        }
+        nextEventTStates = next;
+    }
+
+    private int indexOf(ClockListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -2,9 +2,21 @@ package spectrum.hardware.ula;
 
 public interface ClockListener {
 
-    // Clock ticks
+    // Clock ticks, delta - T-states elapsed since the previous call
     void ticks(long tStates, int delta);
 
+    /**
+     * T-state at which the listener needs the next {@link #ticks} call.
+     * Between events the listener is synchronized only before port I/O and at the end of the frame.
+     * By default the listener is serviced on every clock increment.
+     *
+     * @param tStates current T-state
+     * @return next event T-state, or {@link ClockEventScheduler#NEVER}
+     */
+    default long nextEventTStates(long tStates) {
+        return tStates + 1;
+    }
+
     default void addressOnBus(int address, int tstates) {
         // do nothing
     }
@@ -2,6 +2,7 @@ package spectrum.hardware.ula;
 
 import com.codingrodent.microprocessor.IBaseDevice;
 import com.codingrodent.microprocessor.IMemory;
+import spectrum.hardware.machine.MachineContext;
 import spectrum.hardware.memory.Memory;
 
 public interface Ula extends z80core.MemIoOps, IMemory, IBaseDevice {
@@ -12,14 +13,35 @@ public interface Ula extends z80core.MemIoOps, IMemory, IBaseDevice {
 
     void addClockListener(ClockListener listener);
 
+    /**
+     * Bring all clock listeners up to the current T-state, e.g. before the end of the frame.
+     */
+    void syncClockListeners();
+
+    /**
+     * Register a clock listener that is synced before every write into displayed screen memory,
+     * so a lazy video renderer sees the old contents up to the write T-state.
+     */
+    void addScreenMemoryListener(ClockListener listener);
+
     void requestInterrupt();
 
     void addTStates(int tStates);
 
     Memory getMemory();
 
+    /**
+     * Context (clock, settings, provider) of the machine this ULA belongs to.
+     */
+    MachineContext getMachineContext();
+
     void addAddressHookController(AddressHookController controller);
 
+    /**
+     * An opcode fetch at the address may trigger an address hook, see {@link AddressHookController#isHooked(int)}.
+     */
+    boolean isAddressHooked(int address);
+
     default void removePortListener(byte port, InPortListener listener) {
         throw new UnsupportedOperationException();
     }
@@ -3,12 +3,13 @@ package spectrum.hardware.ula;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import machine.MachineTypes;
-import machine.SpectrumClock;
 import org.apache.commons.lang3.NotImplementedException;
+import spectrum.hardware.machine.MachineContext;
 import spectrum.hardware.machine.MachineSettings;
 import spectrum.hardware.memory.Memory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,19 +30,27 @@ public class UlaImpl implements Ula {
     @SuppressWarnings("unchecked")
     private final Set<OutPortListener>[] outPortListeners = new Set[256];
     private final List<AddressHookController> addressHookControllers = new ArrayList<>();
+    private ClockListener[] screenMemoryListeners = new ClockListener[0];
     private final ZXClock clock;
     private final MachineSettings machineSettings;
     // Floating bus by ULA (IN ports)
     private final FloatingBus floatingBus;
-    // Support zx-core project lib
-    private static final SpectrumClock spectrumClock = SpectrumClock.INSTANCE;
+    // Clock, settings and provider of the machine owning this ULA
+    @Getter
+    private final MachineContext machineContext;
 
     private final byte[] contentionTable;
 
     public UlaImpl(Memory memory, MachineSettings machineSettings) {
+        this(memory, new MachineContext(machineSettings));
+    }
+
+    public UlaImpl(Memory memory, MachineContext machineContext) {
+        MachineSettings machineSettings = machineContext.getMachineSettings();
         this.memory = memory;
         this.ulaAddTStates = machineSettings.isUlaAddTStates();
         this.machineSettings = machineSettings;
+        this.machineContext = machineContext;
         this.contentionTable = new byte[machineSettings.getMachineType().tstatesFrame];
         if (machineSettings.getMachineType() == MachineTypes.SPECTRUM48K) {
             buildContentionTable48(machineSettings.getMachineType());
@@ -51,7 +60,7 @@ public class UlaImpl implements Ula {
             throw new NotImplementedException("Not implemented machine " + machineSettings.getMachineType());
         }
         this.floatingBus = new FloatingBus(machineSettings);
-        this.clock = new ZXClock();
+        this.clock = new ZXClock(machineContext.getClock());
     }
 
     @Override
@@ -81,11 +90,27 @@ public class UlaImpl implements Ula {
         clock.addClockListener(listener);
     }
 
+    @Override
+    public void addScreenMemoryListener(ClockListener listener) {
+        screenMemoryListeners = Arrays.copyOf(screenMemoryListeners, screenMemoryListeners.length + 1);
+        screenMemoryListeners[screenMemoryListeners.length - 1] = listener;
+    }
+
     @Override
     public void addAddressHookController(AddressHookController controller) {
         addressHookControllers.add(controller);
     }
 
+    @Override
+    public boolean isAddressHooked(int address) {
+        for (AddressHookController controller : addressHookControllers) {
+            if (controller.isHooked(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void setRam(byte[] ram) {
         //z80Ram = ram;
@@ -133,9 +158,18 @@ public class UlaImpl implements Ula {
                 clock.incrementTStates(getContentionDelay(clock.getTStates()));
             }
         }
+        syncScreenMemoryListeners(address);
         memory.writeByte(address, value);
     }
 
+    private void syncScreenMemoryListeners(int address) {
+        if (screenMemoryListeners.length > 0 && memory.isDisplayAddress(address)) {
+            for (ClockListener listener : screenMemoryListeners) {
+                clock.sync(listener);
+            }
+        }
+    }
+
     @Override
     public int peek16(int address) {
         int lsb = peek8(address);
@@ -157,15 +191,21 @@ public class UlaImpl implements Ula {
             clock.incrementTStates(4); // 4 clocks for read byte from the bus
         }
         if (inPortListeners[portLow] != null) {
-            Set<InPortListener> listeners = inPortListeners[portLow];
-            for (InPortListener listener : listeners) {
-                int portValue = listener.inPort(port) & 0xff;
-                if (listener.isExclusiveValue(port)) {
-                    return portValue;
-                }
-                if (!listener.isIgnoreValue(port)) {
-                    value = value | portValue;
+            // Devices must see the current T-state before answering
+            clock.sync();
+            try {
+                Set<InPortListener> listeners = inPortListeners[portLow];
+                for (InPortListener listener : listeners) {
+                    int portValue = listener.inPort(port) & 0xff;
+                    if (listener.isExclusiveValue(port)) {
+                        return portValue;
+                    }
+                    if (!listener.isIgnoreValue(port)) {
+                        value = value | portValue;
+                    }
                 }
+            } finally {
+                clock.reschedule();
             }
         } else {
             value = floatingBus.inPort(port);
@@ -182,12 +222,20 @@ public class UlaImpl implements Ula {
         }
         int lowPort = port & 0xff;
         if (outPortListeners[lowPort] != null) {
+            // Devices render up to the current T-state before the new value applies
+            clock.sync();
             for (OutPortListener listener : outPortListeners[lowPort]) {
                 listener.outPort(port, value);
             }
+            clock.reschedule();
         }
     }
 
+    @Override
+    public void syncClockListeners() {
+        clock.sync();
+    }
+
     @Override
     public void addressOnBus(int address, int tstates) {
         // Additional clocks to be added on some instructions
@@ -241,7 +289,7 @@ public class UlaImpl implements Ula {
     @Override
     public void reset() {
         clock.reset();
-        spectrumClock.reset();
+        machineContext.getClock().reset();
     }
 
     private void buildContentionTable48(MachineTypes machineType) {
@@ -324,11 +372,14 @@ public class UlaImpl implements Ula {
 
     @Override
     public void writeByte(int address, int data) {
+        syncScreenMemoryListeners(address);
         memory.writeByte(address, data);
     }
 
     @Override
     public void writeWord(int address, int data) {
+        syncScreenMemoryListeners(address);
+        syncScreenMemoryListeners(address + 1);
         memory.writeWord(address, data);
     }
 
@@ -3,36 +3,62 @@ package spectrum.hardware.ula;
 import lombok.Getter;
 import machine.SpectrumClock;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class ZXClock {
 
     @Getter
-    private volatile long tStates = 0;
-    private final Set<ClockListener> clockListeners = new HashSet<>();
-    private static final SpectrumClock clock = SpectrumClock.INSTANCE;
+    private long tStates = 0;
+    private final ClockEventScheduler scheduler = new ClockEventScheduler();
+    private final SpectrumClock clock;
+
+    public ZXClock(SpectrumClock clock) {
+        this.clock = clock;
+    }
 
     public void incrementTStates(int amount) {
-        tStates += amount;
-        clockListeners.forEach(listener -> listener.ticks(tStates, amount));
+        long now = tStates + amount;
+        tStates = now;
+        if (now >= scheduler.getNextEventTStates()) {
+            scheduler.dispatch(now);
+        }
         clock.addTstates(amount);
     }
 
     public void addClockListener(ClockListener listener) {
-        clockListeners.add(listener);
+        scheduler.addListener(listener, tStates);
     }
 
     public void addressOnBus(int address, int tstates) {
-        clockListeners.forEach(listener -> listener.addressOnBus(address, tstates));
+        scheduler.addressOnBus(address, tstates);
     }
 
     public void removeClockListener(ClockListener listener) {
-        clockListeners.remove(listener);
+        scheduler.removeListener(listener);
+    }
+
+    /**
+     * Bring all listeners up to the current T-state.
+     */
+    public void sync() {
+        scheduler.sync(tStates);
+    }
+
+    /**
+     * Bring one listener up to the current T-state.
+     */
+    public void sync(ClockListener listener) {
+        scheduler.sync(listener, tStates);
+    }
+
+    /**
+     * Re-read listener events after their state was changed from outside the clock.
+     */
+    public void reschedule() {
+        scheduler.reschedule(tStates);
     }
 
     public void reset() {
         tStates = 0;
+        scheduler.reset(0);
         clock.setTstates(0);
     }
 
@@ -0,0 +1,133 @@
+package spectrum.hardware.video;
+
+import java.util.Arrays;
+
+/**
+ * Changed area of a frame buffer, tracked as one horizontal span per row.
+ * <p>
+ * The video marks spans while rendering and hands the region to
+ * {@link VideoDriver#presentFrame(int[], int, DirtyRegion)} at the end of the frame,
+ * so the driver converts and uploads only what changed.
+ */
+public class DirtyRegion {
+
+    private final int width;
+    private final int height;
+    // Per row [start, end) of changed pixels, start == end when the row is clean
+    private final int[] rowStart;
+    private final int[] rowEnd;
+    private int minY;
+    private int maxY;
+
+    public DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowStart = new int[height];
+        this.rowEnd = new int[height];
+        clear();
+    }
+
+    /**
+     * Region covering the whole buffer.
+     */
+    public static DirtyRegion full(int width, int height) {
+        DirtyRegion region = new DirtyRegion(width, height);
+        region.markAll();
+        return region;
+    }
+
+    /**
+     * Mark pixels [x0, x1) of row y as changed.
+     */
+    public void mark(int y, int x0, int x1) {
+        if (rowStart[y] == rowEnd[y]) {
+            rowStart[y] = x0;
+            rowEnd[y] = x1;
+        } else {
+            rowStart[y] = Math.min(rowStart[y], x0);
+            rowEnd[y] = Math.max(rowEnd[y], x1);
+        }
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+    }
+
+    /**
+     * Mark every span of another region of the same size, e.g. to merge coalesced frames.
+     */
+    public void add(DirtyRegion other) {
+        for (int y = other.minY; y <= other.maxY; y++) {
+            if (other.isRowDirty(y)) {
+                mark(y, other.rowStart[y], other.rowEnd[y]);
+            }
+        }
+    }
+
+    public void markAll() {
+        Arrays.fill(rowStart, 0);
+        Arrays.fill(rowEnd, width);
+        minY = 0;
+        maxY = height - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(rowStart, 0);
+        Arrays.fill(rowEnd, 0);
+        minY = height;
+        maxY = -1;
+    }
+
+    public boolean isEmpty() {
+        return maxY < minY;
+    }
+
+    public boolean isRowDirty(int y) {
+        return rowStart[y] != rowEnd[y];
+    }
+
+    public int getRowStart(int y) {
+        return rowStart[y];
+    }
+
+    public int getRowEnd(int y) {
+        return rowEnd[y];
+    }
+
+    // First dirty row, or height when empty
+    public int getMinY() {
+        return minY;
+    }
+
+    // Last dirty row, or -1 when empty
+    public int getMaxY() {
+        return maxY;
+    }
+
+    // Leftmost changed pixel over all rows
+    public int getMinX() {
+        int minX = width;
+        for (int y = minY; y <= maxY; y++) {
+            if (isRowDirty(y)) {
+                minX = Math.min(minX, rowStart[y]);
+            }
+        }
+        return minX;
+    }
+
+    // Right bound (exclusive) of changed pixels over all rows
+    public int getMaxX() {
+        int maxX = 0;
+        for (int y = minY; y <= maxY; y++) {
+            maxX = Math.max(maxX, rowEnd[y]);
+        }
+        return maxX;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -6,11 +6,13 @@ import lombok.extern.slf4j.Slf4j;
 import machine.MachineTypes;
 import spectrum.hardware.machine.MachineSettings;
 import spectrum.hardware.memory.Memory;
+import spectrum.hardware.memory.ScreenWriteListener;
+import spectrum.hardware.ula.ClockEventScheduler;
 
 import java.util.Arrays;
 
 @Slf4j
-public class ScanlineVideoImpl implements Video {
+public class ScanlineVideoImpl implements Video, ScreenWriteListener {
 
     // Screen memory addresses
     public static final int BITMAP_START = 0x4000;
@@ -22,12 +24,19 @@ public class ScanlineVideoImpl implements Video {
     private final MachineTypes machineType;
 
     private int borderColor = 0;
-    private long currentTState = 0;
     private int frameCounter = 0;
-    private int currentLineTState = 0;
-    private int currentX = 0;
-    private int currentY = 0;
-    private boolean dirtyScreen = false;
+    // Last rendered beam position, T-states since the start of the frame
+    private int beamTState = 0;
+    private final DirtyRegion dirtyRegion = new DirtyRegion(TOTAL_WIDTH, TOTAL_HEIGHT);
+
+    // 8x8 cells changed by screen writes, for the dirty cells mode
+    private final boolean[] dirtyCells = new boolean[ATTR_SIZE];
+    private boolean borderDirty = true;
+
+    @Getter
+    private VideoRenderMode renderMode = VideoRenderMode.CATCH_UP;
+    // Mode to restore when speed-up ends
+    private VideoRenderMode normalRenderMode = VideoRenderMode.CATCH_UP;
 
     @Setter
     @Getter
@@ -39,15 +48,54 @@ public class ScanlineVideoImpl implements Video {
         this.videoDriver = videoDriver;
         this.memory = memory;
         this.machineType = machineSettings.getMachineType();
+        memory.setScreenWriteListener(this);
+    }
+
+    public void setRenderMode(VideoRenderMode renderMode) {
+        if (renderMode == VideoRenderMode.DIRTY_CELLS && this.renderMode != renderMode) {
+            // Cells were not tracked against the beam output
+            screenInvalidated();
+        }
+        this.renderMode = renderMode;
+    }
+
+    @Override
+    public void setSpeedUpMode(boolean speedUpMode) {
+        if (speedUpMode) {
+            if (renderMode != VideoRenderMode.DIRTY_CELLS) {
+                normalRenderMode = renderMode;
+            }
+            setRenderMode(VideoRenderMode.DIRTY_CELLS);
+        } else {
+            setRenderMode(normalRenderMode);
+        }
     }
 
     @Override
     public void outPort(int port, int value) {
         if ((port & 0xFF) == 0xFE) {
-            borderColor = value & 0x07;
+            int color = value & 0x07;
+            borderDirty |= color != borderColor;
+            borderColor = color;
+        }
+    }
+
+    @Override
+    public void screenWritten(int offset) {
+        if (offset < BITMAP_SIZE) {
+            // 010S SLLL RRRC CCCC
+            dirtyCells[(((offset >> 8) & 0x18) | ((offset >> 5) & 0x07)) << 5 | (offset & 0x1F)] = true;
+        } else {
+            dirtyCells[offset - BITMAP_SIZE] = true;
         }
     }
 
+    @Override
+    public void screenInvalidated() {
+        Arrays.fill(dirtyCells, true);
+        borderDirty = true;
+    }
+
     @Override
     public void init() {
         // do nothing
@@ -73,105 +121,193 @@ public class ScanlineVideoImpl implements Video {
 
     @Override
     public void endFrame() {
-        currentTState = 0;
-        currentLineTState = 0;
-        currentY = 0;
-        currentX = 0;
+        if (renderMode == VideoRenderMode.DIRTY_CELLS) {
+            renderDirtyCells();
+        }
+        beamTState = 0;
         frameCounter++;
-        if (dirtyScreen) {
-            dirtyScreen = false;
+        if ((frameCounter & 0x0F) == 0) {
+            // Flash phase toggled
+            markFlashingCells();
+        }
+        if (!dirtyRegion.isEmpty()) {
             if (videoDriver != null) {
-                videoDriver.refreshScreen();
+                videoDriver.presentFrame(pixels, TOTAL_WIDTH, dirtyRegion);
             }
+            dirtyRegion.clear();
         }
     }
 
     @Override
     public void ticks(long tStates, int delta) {
-        while (delta > 0) {
-            delta--;
-            currentTState++;
-            currentLineTState++;
-
-            drawPixel(currentX, currentY);
-            currentX++;
-            drawPixel(currentX, currentY);
-            currentX++;
-
-            if (currentLineTState >= machineType.tstatesLine) {
-                currentLineTState -= machineType.tstatesLine;
-                currentY++;
-                currentX = 0;
+        if (renderMode != VideoRenderMode.DIRTY_CELLS) {
+            renderTo(beamTState + delta);
+        }
+    }
+
+    @Override
+    public long nextEventTStates(long tStates) {
+        // Otherwise the ULA syncs the video before border OUTs, screen writes and the end of frame
+        return renderMode == VideoRenderMode.PER_TSTATE ? tStates + 1 : ClockEventScheduler.NEVER;
+    }
+
+    private void markFlashingCells() {
+        byte[] screen = memory.getDisplayMemory();
+        int attrStart = memory.getDisplayOffset() + BITMAP_SIZE;
+        for (int cell = 0; cell < ATTR_SIZE; cell++) {
+            if ((screen[attrStart + cell] & 0x80) != 0) {
+                dirtyCells[cell] = true;
             }
         }
     }
 
-    private void drawPixel(int x, int y) {
-        if (x < 0 || x >= TOTAL_WIDTH || y < 0 || y >= TOTAL_HEIGHT) {
-            return;
+    /**
+     * Redraw the border if its color changed and every dirty cell, whole frame at once.
+     */
+    private void renderDirtyCells() {
+        if (borderDirty) {
+            borderDirty = false;
+            for (int y = 0; y < TOTAL_HEIGHT; y++) {
+                if (y < BORDER_V_SIZE || y >= BORDER_V_SIZE + SCREEN_HEIGHT) {
+                    drawBorderSpan(y, 0, TOTAL_WIDTH);
+                } else {
+                    drawBorderSpan(y, 0, BORDER_H_SIZE);
+                    drawBorderSpan(y, BORDER_H_SIZE + SCREEN_WIDTH, TOTAL_WIDTH);
+                }
+            }
         }
-        if (isScreenPixel(x, y)) {
-            drawScreenPixel(x, y, x - BORDER_H_SIZE, y - BORDER_V_SIZE);
-        } else {
-            drawBorderPixel(x, y);
+        int flashPhase = (frameCounter >> 4) & 1;
+        byte[] screen = memory.getDisplayMemory();
+        int base = memory.getDisplayOffset();
+        for (int cell = 0; cell < ATTR_SIZE; cell++) {
+            if (!dirtyCells[cell]) {
+                continue;
+            }
+            dirtyCells[cell] = false;
+            int column = cell & 0x1F;
+            int charY = (cell >> 5) << 3;
+            int attrByte = screen[base + ScreenTables.ATTR_ROW_OFFSET[charY] + column] & 0xFF;
+            int x = BORDER_H_SIZE + (column << 3);
+            for (int line = 0; line < 8; line++) {
+                int screenY = charY + line;
+                int pixelByte = screen[base + ScreenTables.BITMAP_ROW_OFFSET[screenY] + column] & 0xFF;
+                int y = BORDER_V_SIZE + screenY;
+                int changed = copyCell(y * TOTAL_WIDTH + x, ScreenTables.cellOffset(pixelByte, attrByte, flashPhase), 8);
+                if (changed >= 0) {
+                    dirtyRegion.mark(y, x + changed, x + 8);
+                }
+            }
         }
     }
 
-    private void drawBorderPixel(int x, int y) {
-        int index = y * TOTAL_WIDTH + x;
-        int color = pixels[index];
-        if (color != borderColor) {
-            pixels[index] = borderColor;
-        } else {
-            setPixel(x, y, color);
+    /**
+     * Copy cell colors to the frame buffer where they differ.
+     *
+     * @return index of the first changed pixel, -1 if nothing changed
+     */
+    private int copyCell(int index, int src, int count) {
+        int[] cells = ScreenTables.CELL_COLORS;
+        int mismatch = Arrays.mismatch(cells, src, src + count, pixels, index, index + count);
+        if (mismatch >= 0) {
+            System.arraycopy(cells, src + mismatch, pixels, index + mismatch, count - mismatch);
         }
+        return mismatch;
     }
 
-    private void drawScreenPixel(int x, int y, int screenX, int screenY) {
-
-        int bitX = screenX % 8; // bit in byte
-
-        int pixelAddr = calculatePixelAddress(screenX, screenY);
-        int pixelByte = memory.readByte(pixelAddr) & 0xFF;
-        int attrAddr = getAttributeAddress(screenX, screenY);
-        int attrByte = memory.readByte(attrAddr) & 0xFF;
-
-        int ink = attrByte & 0x07;
-        int paper = (attrByte >> 3) & 0x07;
-        int bright = (attrByte >> 6) & 0x01;
-        int flash = (attrByte >> 7) & 0x01;
-
-        // Decode pixel color
-        boolean pixelSet = ((pixelByte >> (7 - bitX)) & 1) == 1;
-        int color = pixelSet ? ink : paper;
-
-        // flashing
-        if (flash == 1 && (frameCounter & 0x10) != 0) {
-            color = pixelSet ? paper : ink;
+    /**
+     * Rasterize the beam from the last rendered position up to the target T-state.
+     * Every T-state covers two pixels of the current line.
+     */
+    private void renderTo(int targetTState) {
+        int tstatesLine = machineType.tstatesLine;
+        int end = Math.min(targetTState, TOTAL_HEIGHT * tstatesLine);
+        int pos = beamTState;
+        while (pos < end) {
+            int line = pos / tstatesLine;
+            int lineStart = line * tstatesLine;
+            int spanEnd = Math.min(end, lineStart + tstatesLine);
+            renderSpan(line, (pos - lineStart) << 1, (spanEnd - lineStart) << 1);
+            pos = spanEnd;
         }
-        if (bright == 1) color += 8;
+        beamTState = targetTState;
+    }
 
-        int index = y * TOTAL_WIDTH + x;
-        int currentColor = pixels[index];
-        if (currentColor != color) {
-            pixels[index] = color;
-            setPixel(x, y, color);
+    /**
+     * Render pixels [x0, x1) of one line.
+     */
+    private void renderSpan(int y, int x0, int x1) {
+        x1 = Math.min(x1, TOTAL_WIDTH);
+        if (x0 >= x1) {
+            return;
+        }
+        if (y < BORDER_V_SIZE || y >= BORDER_V_SIZE + SCREEN_HEIGHT) {
+            drawBorderSpan(y, x0, x1);
+            return;
+        }
+        int screenStart = BORDER_H_SIZE;
+        int screenEnd = BORDER_H_SIZE + SCREEN_WIDTH;
+        if (x0 < screenStart) {
+            drawBorderSpan(y, x0, Math.min(x1, screenStart));
+        }
+        if (x1 > screenStart && x0 < screenEnd) {
+            drawScreenSpan(y, Math.max(x0, screenStart), Math.min(x1, screenEnd));
+        }
+        if (x1 > screenEnd) {
+            drawBorderSpan(y, Math.max(x0, screenEnd), x1);
         }
     }
 
-    private int getAttributeAddress(int x, int y) {
-        int row = y >> 3;    // Y / 8
-        int col = x >> 3;    // X / 8
-        return ATTR_START + (row << 5) + col;
+    private void drawBorderSpan(int y, int x0, int x1) {
+        int index = y * TOTAL_WIDTH + x0;
+        int changedFrom = -1;
+        int changedTo = -1;
+        for (int x = x0; x < x1; x++, index++) {
+            if (pixels[index] != borderColor) {
+                pixels[index] = borderColor;
+                if (changedFrom < 0) {
+                    changedFrom = x;
+                }
+                changedTo = x + 1;
+            }
+        }
+        if (changedFrom >= 0) {
+            dirtyRegion.mark(y, changedFrom, changedTo);
+        }
     }
 
-    private int calculatePixelAddress(int x, int y) {
-        int line = y & 0x07;          // Little 3 bits Y
-        int third = (y >> 3) & 0x07;  // Middle 3 bits Y
-        int section = (y >> 6) & 0x03; // Big 2 bits Y
-        int column = x >> 3;           // X / 8
-
-        return BITMAP_START + (section << 11) + (line << 8) + (third << 5) + column;
+    private void drawScreenSpan(int y, int x0, int x1) {
+        int screenY = y - BORDER_V_SIZE;
+        // Shown bank is fetched per span: bank switches sync the video first
+        byte[] screen = memory.getDisplayMemory();
+        int bitmapRow = memory.getDisplayOffset() + ScreenTables.BITMAP_ROW_OFFSET[screenY];
+        int attrRow = memory.getDisplayOffset() + ScreenTables.ATTR_ROW_OFFSET[screenY];
+        int flashPhase = (frameCounter >> 4) & 1;
+        int changedFrom = -1;
+        int changedTo = -1;
+        int x = x0;
+        int index = y * TOTAL_WIDTH + x0;
+        while (x < x1) {
+            int screenX = x - BORDER_H_SIZE;
+            int column = screenX >> 3;
+            int bit = screenX & 7;
+            int count = Math.min(x1 - x, 8 - bit);
+            // One bitmap and one attribute fetch per 8-pixel cell
+            int pixelByte = screen[bitmapRow + column] & 0xFF;
+            int attrByte = screen[attrRow + column] & 0xFF;
+            int src = ScreenTables.cellOffset(pixelByte, attrByte, flashPhase) + bit;
+            int mismatch = copyCell(index, src, count);
+            if (mismatch >= 0) {
+                if (changedFrom < 0) {
+                    changedFrom = x + mismatch;
+                }
+                changedTo = x + count;
+            }
+            x += count;
+            index += count;
+        }
+        if (changedFrom >= 0) {
+            dirtyRegion.mark(y, changedFrom, changedTo);
+        }
     }
 
     public static boolean isScreenPixel(int x, int y) {
@@ -179,18 +315,16 @@ public class ScanlineVideoImpl implements Video {
                 && y >= BORDER_V_SIZE && y < BORDER_V_SIZE + SCREEN_HEIGHT;
     }
 
-    private void setPixel(int x, int y, int color) {
-        dirtyScreen = true;
-        if (videoDriver == null) {
-            return;
-        }
-        videoDriver.drawPixel(x, y, color);
-    }
-
     private void clearScreen() {
         borderColor = 0;
         Arrays.fill(pixels, 0);
-        dirtyScreen = false;
+        dirtyRegion.clear();
+        screenInvalidated();
+    }
+
+    @Override
+    public int[] getFrameBuffer() {
+        return pixels;
     }
 
     @Override
@@ -199,14 +333,7 @@ public class ScanlineVideoImpl implements Video {
             return;
         }
         // Redraw all pixels from internal buffer
-        for (int y = 0; y < TOTAL_HEIGHT; y++) {
-            for (int x = 0; x < TOTAL_WIDTH; x++) {
-                int index = y * TOTAL_WIDTH + x;
-                int color = pixels[index];
-                videoDriver.drawPixel(x, y, color);
-            }
-        }
-        videoDriver.refreshScreen();
+        videoDriver.presentFrame(pixels, TOTAL_WIDTH, DirtyRegion.full(TOTAL_WIDTH, TOTAL_HEIGHT));
     }
 
 }
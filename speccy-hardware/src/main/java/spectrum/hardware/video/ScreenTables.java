@@ -0,0 +1,76 @@
+package spectrum.hardware.video;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Precomputed tables for decoding the Spectrum screen one 8-pixel cell at a time.
+ * <p>
+ * Row tables give the offset of the first bitmap and attribute byte of every
+ * screen line, relative to the start of the screen bank. The cell table holds
+ * the 8 Spectrum colors (0-15) of every bitmap byte / attribute combination,
+ * with flash already resolved by {@link #cellOffset(int, int, int)}.
+ * <p>
+ * Tables are immutable and shared by all machines.
+ */
+@UtilityClass
+public class ScreenTables {
+
+    /**
+     * Offset of the bitmap byte of column 0 for screen lines 0-191.
+     */
+    public static final int[] BITMAP_ROW_OFFSET = new int[Video.SCREEN_HEIGHT];
+
+    /**
+     * Offset of the attribute byte of column 0 for screen lines 0-191.
+     */
+    public static final int[] ATTR_ROW_OFFSET = new int[Video.SCREEN_HEIGHT];
+
+    /**
+     * Colors of 8 pixels, indexed by {@link #cellOffset(int, int, int)}.
+     */
+    public static final int[] CELL_COLORS = new int[128 * 256 * 8];
+
+    // Attribute with flash resolved: [flash phase][attribute] -> attribute without flash bit
+    private static final int[][] FLASH_ATTR = new int[2][256];
+
+    static {
+        for (int y = 0; y < Video.SCREEN_HEIGHT; y++) {
+            // 010S SLLL RRRC CCCC: section, line in char, char row, column
+            BITMAP_ROW_OFFSET[y] = ((y & 0xC0) << 5) | ((y & 0x07) << 8) | ((y & 0x38) << 2);
+            ATTR_ROW_OFFSET[y] = 0x1800 + ((y >> 3) << 5);
+        }
+        for (int attr = 0; attr < 256; attr++) {
+            int plain = attr & 0x7F;
+            FLASH_ATTR[0][attr] = plain;
+            if ((attr & 0x80) != 0) {
+                // Swap ink and paper
+                FLASH_ATTR[1][attr] = (plain & 0x40) | ((plain & 0x07) << 3) | ((plain >> 3) & 0x07);
+            } else {
+                FLASH_ATTR[1][attr] = plain;
+            }
+        }
+        for (int attr = 0; attr < 128; attr++) {
+            int bright = (attr & 0x40) != 0 ? 8 : 0;
+            int ink = (attr & 0x07) + bright;
+            int paper = ((attr >> 3) & 0x07) + bright;
+            for (int bitmap = 0; bitmap < 256; bitmap++) {
+                int offset = ((attr << 8) | bitmap) << 3;
+                for (int bit = 0; bit < 8; bit++) {
+                    CELL_COLORS[offset + bit] = ((bitmap >> (7 - bit)) & 1) != 0 ? ink : paper;
+                }
+            }
+        }
+    }
+
+    /**
+     * Offset in {@link #CELL_COLORS} of the 8 colors of a cell.
+     *
+     * @param bitmap     bitmap byte (0-255)
+     * @param attr       attribute byte (0-255)
+     * @param flashPhase 1 when flashing cells show inverted, 0 otherwise
+     */
+    public static int cellOffset(int bitmap, int attr, int flashPhase) {
+        return ((FLASH_ATTR[flashPhase][attr] << 8) | bitmap) << 3;
+    }
+
+}
@@ -0,0 +1,90 @@
+package spectrum.hardware.video;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free triple buffer for handing frames from the emulation thread to a UI thread.
+ * <p>
+ * The producer owns the back buffer, the consumer owns the front buffer, and the
+ * third one sits in the middle slot. Publishing and acquiring are single atomic
+ * index swaps, so neither side ever waits for the other. A frame published while
+ * the previous one was not picked up yet replaces it and is counted as dropped.
+ * <p>
+ * Exactly one producer thread and one consumer thread.
+ */
+public class TripleFrameBuffer {
+
+    // Middle slot flag: the frame in it has not been picked up yet
+    private static final int FRESH = 0x4;
+    private static final int INDEX_MASK = 0x3;
+
+    private final int[][] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private final AtomicLong publishedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    // Owned by the producer
+    private int back = 0;
+    // Owned by the consumer
+    private int front = 2;
+
+    public TripleFrameBuffer(int size) {
+        this.buffers = new int[3][size];
+    }
+
+    /**
+     * Buffer to fill with the next frame, producer side.
+     */
+    public int[] getBackBuffer() {
+        return buffers[back];
+    }
+
+    /**
+     * Hand the back buffer over to the consumer, producer side.
+     *
+     * @return false if an unconsumed frame was replaced (coalesced)
+     */
+    public boolean publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        publishedFrames.incrementAndGet();
+        if ((previous & FRESH) != 0) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Take the latest published frame, consumer side.
+     *
+     * @return the new front buffer, or null if nothing was published since the last call
+     */
+    public int[] acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return buffers[front];
+    }
+
+    /**
+     * Last acquired frame, consumer side.
+     */
+    public int[] getFrontBuffer() {
+        return buffers[front];
+    }
+
+    public long getPublishedFrames() {
+        return publishedFrames.get();
+    }
+
+    /**
+     * Frames replaced before the consumer picked them up.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+}
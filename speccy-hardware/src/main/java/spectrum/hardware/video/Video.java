@@ -29,6 +29,13 @@ public interface Video extends Device, ClockListener, OutPortListener {
         // default implementation does nothing
     }
 
+    /**
+     * Internal frame buffer of Spectrum color indices (0-15),
+     * TOTAL_WIDTH x TOTAL_HEIGHT, row by row.
+     * The array is live and must be treated as read-only.
+     */
+    int[] getFrameBuffer();
+
     /**
      * ================
      * SCREEN SIZES
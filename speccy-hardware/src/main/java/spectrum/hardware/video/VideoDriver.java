@@ -18,6 +18,24 @@ public interface VideoDriver extends Driver {
      */
     void drawPixel(int x, int y, int color);
 
+    /**
+     * Present a whole frame at once. Called once per frame from the emulation thread.
+     * Default implementation falls back to {@link #drawPixel} for the changed spans.
+     *
+     * @param pixels - frame buffer of Spectrum colors (0-15), row by row
+     * @param stride - row length of the frame buffer
+     * @param dirty  - changed area since the previous present
+     */
+    default void presentFrame(int[] pixels, int stride, DirtyRegion dirty) {
+        for (int y = dirty.getMinY(); y <= dirty.getMaxY(); y++) {
+            int end = dirty.getRowEnd(y);
+            for (int x = dirty.getRowStart(y); x < end; x++) {
+                drawPixel(x, y, pixels[y * stride + x]);
+            }
+        }
+        refreshScreen();
+    }
+
     default void setZoomLevel(ZoomLevel zoomLevel) {
         // do nothing
     }
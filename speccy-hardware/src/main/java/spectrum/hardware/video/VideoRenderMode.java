@@ -0,0 +1,25 @@
+package spectrum.hardware.video;
+
+/**
+ * How {@link ScanlineVideoImpl} turns screen memory into pixels.
+ */
+public enum VideoRenderMode {
+
+    /**
+     * Beam rendered on every T-state.
+     */
+    PER_TSTATE,
+
+    /**
+     * Beam rendered lazily, span by span, when something visible is about to change.
+     * Same output as {@link #PER_TSTATE}.
+     */
+    CATCH_UP,
+
+    /**
+     * No beam: at the end of the frame only the 8x8 cells changed by screen writes
+     * (and flashing cells on the flash toggle) are redrawn. Mid-frame effects are lost,
+     * used in speed-up mode.
+     */
+    DIRTY_CELLS
+}
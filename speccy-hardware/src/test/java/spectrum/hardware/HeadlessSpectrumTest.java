@@ -0,0 +1,99 @@
+package spectrum.hardware;
+
+import machine.MachineTypes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessSpectrumTest {
+
+    private static final int MAX_BOOT_FRAMES = 500;
+
+    private static MachineSettings settings48() {
+        return MachineSettings.ofDefault(CpuImplementation.SANCHES)
+                .setMachineType(MachineTypes.SPECTRUM48K)
+                .setEnableDiskController(false);
+    }
+
+    // Copyright message is printed on the last character row (third 2, row 7)
+    private static boolean copyrightShown(HeadlessSpectrum spectrum) {
+        Memory memory = spectrum.getMemory();
+        for (int line = 0; line < 8; line++) {
+            for (int col = 0; col < 32; col++) {
+                if (memory.readByte(0x5000 + (line << 8) + (7 << 5) + col) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void bootsToCopyrightScreen() {
+        HeadlessSpectrum spectrum = new HeadlessSpectrum(settings48());
+
+        long frames = spectrum.runUntil(HeadlessSpectrumTest::copyrightShown, MAX_BOOT_FRAMES);
+
+        assertTrue(frames > 0, "48K ROM did not reach the copyright screen");
+        assertEquals(frames, spectrum.getFrames());
+        assertEquals(spectrum.getEmulator().getVideo().getTotalWidth()
+                * spectrum.getEmulator().getVideo().getTotalHeight(), spectrum.getFrameBuffer().length);
+    }
+
+    @Test
+    void independentMachinesInParallel() throws Exception {
+        int machines = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(machines);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int i = 0; i < machines; i++) {
+                results.add(executor.submit(() -> {
+                    HeadlessSpectrum spectrum = new HeadlessSpectrum(settings48());
+                    spectrum.runFrames(150);
+                    assertEquals(150, spectrum.getFrames());
+                    return spectrum.getFrameBuffer().clone();
+                }));
+            }
+            int[] expected = results.getFirst().get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get(), "Machines must not share state");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void recordsAudioToWavFile(@TempDir Path dir) throws Exception {
+        Path wav = dir.resolve("boot.wav");
+        HeadlessSpectrum spectrum = new HeadlessSpectrum(settings48());
+
+        spectrum.recordAudio(wav).runFrames(100).stopAudio();
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(wav)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("RIFF", new String(file.array(), 0, 4));
+        assertEquals("WAVE", new String(file.array(), 8, 4));
+        assertEquals(2, file.getShort(22)); // stereo
+        assertEquals(44100, file.getInt(24));
+        int dataSize = file.getInt(40);
+        assertEquals(file.capacity() - 44, dataSize);
+        // 100 frames of 69888 T-states at 3.5 MHz, 4 bytes per stereo frame
+        double expectedFrames = 100 * 69888 * 44100.0 / 3_500_000;
+        assertEquals(expectedFrames, dataSize / 4.0, 2);
+    }
+
+}
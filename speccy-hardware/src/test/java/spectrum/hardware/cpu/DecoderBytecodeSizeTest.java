@@ -0,0 +1,110 @@
+package spectrum.hardware.cpu;
+
+import com.codingrodent.microprocessor.z80.Z80Core;
+import org.junit.jupiter.api.Test;
+import z80core.Z80;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HotSpot never JIT-compiles a method with more than 8000 bytes of bytecode ({@code HugeMethodLimit}),
+ * it stays in the interpreter. Keeps every method of both CPU cores well below that limit,
+ * so adding opcodes to a decoder group fails here instead of silently slowing down the emulation.
+ */
+class DecoderBytecodeSizeTest {
+
+    private static final int HUGE_METHOD_LIMIT = 8000;
+    private static final int BUDGET = 6000;
+
+    @Test
+    void sanchesCoreMethodsAreCompilable() throws IOException {
+        assertWithinBudget(Z80.class);
+        assertWithinBudget(Z80CoreAdapter.class);
+    }
+
+    @Test
+    void codingrodentCoreMethodsAreCompilable() throws IOException {
+        assertWithinBudget(Z80Core.class);
+        assertWithinBudget(Z80ProcessorAdapter.class);
+    }
+
+    private static void assertWithinBudget(Class<?> type) throws IOException {
+        Map<String, Integer> sizes = codeSizes(type);
+        assertTrue(sizes.size() > 1, "No methods read from " + type.getName());
+        sizes.forEach((method, size) -> assertTrue(size <= BUDGET,
+                type.getSimpleName() + "." + method + " has " + size + " bytes of bytecode, budget " + BUDGET
+                        + " (HugeMethodLimit " + HUGE_METHOD_LIMIT + ")"));
+    }
+
+    /**
+     * Bytecode length of every method with a Code attribute, read from the class file
+     * (JVMS 4.1, 4.4, 4.6, 4.7.3).
+     */
+    private static Map<String, Integer> codeSizes(Class<?> type) throws IOException {
+        InputStream resource = type.getResourceAsStream(type.getSimpleName() + ".class");
+        assertNotNull(resource, "Class file of " + type.getName());
+        try (DataInputStream in = new DataInputStream(resource)) {
+            in.readInt();          // magic
+            in.readInt();          // minor, major version
+            int count = in.readUnsignedShort();
+            String[] utf8 = new String[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1 -> utf8[i] = in.readUTF();
+                    case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+                    case 15 -> in.skipNBytes(3);
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                    case 5, 6 -> {
+                        in.skipNBytes(8);
+                        i++;       // long and double take two entries
+                    }
+                    default -> throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+            in.skipNBytes(6);      // access flags, this class, super class
+            in.skipNBytes(2L * in.readUnsignedShort());
+            int fields = in.readUnsignedShort();
+            for (int i = 0; i < fields; i++) {
+                in.skipNBytes(6);
+                skipAttributes(in);
+            }
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            int methods = in.readUnsignedShort();
+            for (int i = 0; i < methods; i++) {
+                in.skipNBytes(2);
+                String name = utf8[in.readUnsignedShort()] + utf8[in.readUnsignedShort()];
+                int attributes = in.readUnsignedShort();
+                for (int a = 0; a < attributes; a++) {
+                    String attribute = utf8[in.readUnsignedShort()];
+                    int length = in.readInt();
+                    if ("Code".equals(attribute)) {
+                        in.skipNBytes(4);  // max stack, max locals
+                        int codeLength = in.readInt();
+                        sizes.put(name, codeLength);
+                        in.skipNBytes(length - 8L);
+                    } else {
+                        in.skipNBytes(length);
+                    }
+                }
+            }
+            return sizes;
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.skipNBytes(2);
+            in.skipNBytes(in.readInt());
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package spectrum.hardware.cpu;
+
+import machine.MachineTypes;
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.HeadlessSpectrum;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomPredecodeTableTest {
+
+    // Past the RAM check and the copyright screen or the 128K menu
+    private static final int BOOT_FRAMES = 150;
+
+    private static HeadlessSpectrum boot(MachineTypes machineType, boolean romPredecode) {
+        MachineSettings settings = MachineSettings.ofDefault(CpuImplementation.SANCHES)
+                .setMachineType(machineType)
+                .setEnableDiskController(false)
+                .setRomPredecode(romPredecode);
+        return new HeadlessSpectrum(settings).runFrames(BOOT_FRAMES);
+    }
+
+    private static void assertSameBoot(MachineTypes machineType) {
+        HeadlessSpectrum predecoded = boot(machineType, true);
+        HeadlessSpectrum decoded = boot(machineType, false);
+
+        long[] entries = ((Z80CoreAdapter) predecoded.getCpu()).getRomTable().getCurrent();
+        assertTrue(Arrays.stream(entries).filter(e -> e != RomPredecodeTable.NONE).count() > 100, machineType.name());
+
+        assertEquals(decoded.getCpu().getSnapShot(), predecoded.getCpu().getSnapShot(), machineType.name());
+        assertEquals(decoded.getEmulator().getUla().gettStates(), predecoded.getEmulator().getUla().gettStates());
+        assertArrayEquals(decoded.getMemory().getBlock(0, 0x10000), predecoded.getMemory().getBlock(0, 0x10000));
+        assertArrayEquals(decoded.getFrameBuffer(), predecoded.getFrameBuffer(), machineType.name());
+    }
+
+    @Test
+    void boot48KMatchesBusDecoding() {
+        assertSameBoot(MachineTypes.SPECTRUM48K);
+    }
+
+    @Test
+    void boot128KMatchesBusDecoding() {
+        assertSameBoot(MachineTypes.SPECTRUM128K);
+    }
+
+    @Test
+    void entryFields() {
+        long entry = RomPredecodeTable.entry(0xDD, 0xAB36FE, 4, 19);
+
+        assertNotEquals(RomPredecodeTable.NONE, entry);
+        assertEquals(0xDD, RomPredecodeTable.opcode(entry));
+        assertEquals(0xAB36FE, RomPredecodeTable.operands(entry));
+        assertEquals(4, RomPredecodeTable.length(entry));
+        assertEquals(19, RomPredecodeTable.tStates(entry));
+    }
+
+    @Test
+    void loadAndWriteDropEntries() {
+        HeadlessSpectrum spectrum = boot(MachineTypes.SPECTRUM48K, true);
+        Memory memory = spectrum.getMemory();
+        RomPredecodeTable table = ((Z80CoreAdapter) spectrum.getCpu()).getRomTable();
+        long[] entries = table.getCurrent();
+        entries[0x100] = entries[0x103] = entries[0x104] = 1;
+
+        table.romWritten(0x103);
+        assertEquals(RomPredecodeTable.NONE, entries[0x100]);
+        assertEquals(RomPredecodeTable.NONE, entries[0x103]);
+        assertEquals(1, entries[0x104]);
+
+        table.romLoaded(memory.getRomPage());
+        assertEquals(RomPredecodeTable.NONE, entries[0x104]);
+        assertSame(entries, table.getCurrent());
+    }
+
+}
@@ -0,0 +1,62 @@
+package spectrum.hardware.cpu.zex;
+
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.machine.CpuImplementation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZexRunnerTest {
+
+    // The short load groups, "ld <bc,de>,(nnnn)" to "ld <ixh,ixl,iyh,iyl>,nn"
+    private static final List<Integer> LOAD_GROUPS = IntStream.rangeClosed(32, 48).boxed().toList();
+
+    @Test
+    void readsTestTable() throws Exception {
+        ZexRunner runner = ZexRunner.load("/tests/zexdoc.com", CpuImplementation.SANCHES);
+
+        assertEquals(67, runner.getGroupCount());
+        assertEquals("<adc,sbc> hl,<bc,de,hl,sp>", runner.getGroupName(0));
+        assertEquals("ld (<bc,de>),a", runner.getGroupName(66));
+    }
+
+    @Test
+    void loadGroupsPassOnBothCores() throws Exception {
+        try (ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors())) {
+            for (CpuImplementation core : CpuImplementation.values()) {
+                ZexRunner runner = ZexRunner.load("/tests/zexall.com", core);
+
+                List<ZexGroupResult> results = runner.run(pool, LOAD_GROUPS);
+
+                assertEquals(LOAD_GROUPS.size(), results.size());
+                for (ZexGroupResult result : results) {
+                    assertTrue(result.isPassed(), core + " " + result.getName() + ": " + result.getOutput());
+                    assertTrue(result.getTStates() > 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    void romPredecodeMatchesBusDecoding() throws Exception {
+        try (ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors())) {
+            ZexRunner runner = ZexRunner.load("/tests/zexdoc.com", CpuImplementation.SANCHES);
+            List<ZexGroupResult> predecoded = runner.run(pool, LOAD_GROUPS);
+            runner.setRomPredecode(false);
+            List<ZexGroupResult> decoded = runner.run(pool, LOAD_GROUPS);
+
+            for (int i = 0; i < LOAD_GROUPS.size(); i++) {
+                ZexGroupResult expected = decoded.get(i);
+                ZexGroupResult actual = predecoded.get(i);
+                assertTrue(actual.isPassed(), actual.getName() + ": " + actual.getOutput());
+                assertEquals(expected.getOutput(), actual.getOutput(), actual.getName());
+                assertEquals(expected.getTStates(), actual.getTStates(), actual.getName());
+            }
+        }
+    }
+
+}
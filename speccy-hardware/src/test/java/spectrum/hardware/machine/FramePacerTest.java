@@ -0,0 +1,48 @@
+package spectrum.hardware.machine;
+
+import machine.MachineTypes;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FramePacerTest {
+
+    @Test
+    void periodFollowsMachineType() {
+        // 69888 / 3.5 MHz = 19.968 ms, 50.08 Hz
+        assertEquals(19_968_000, new FramePacer(MachineTypes.SPECTRUM48K).getFramePeriodNs());
+    }
+
+    @Test
+    void audioFillLevelCorrectsPeriod() {
+        FramePacer pacer = new FramePacer(MachineTypes.SPECTRUM48K);
+        long period = pacer.getFramePeriodNs();
+
+        pacer.setAudioFillLevel(() -> FramePacer.AUDIO_TARGET_FILL);
+        assertEquals(period, pacer.currentPeriod());
+        pacer.setAudioFillLevel(() -> 1.0);
+        assertTrue(pacer.currentPeriod() > period);
+        pacer.setAudioFillLevel(() -> 0.0);
+        assertTrue(pacer.currentPeriod() < period);
+        assertTrue(pacer.currentPeriod() >= Math.round(period * (1 - FramePacer.MAX_AUDIO_CORRECTION)));
+        pacer.setAudioFillLevel(() -> -1);
+        assertEquals(period, pacer.currentPeriod());
+    }
+
+    @Test
+    void pacesFramesAndCountsOverruns() throws InterruptedException {
+        FramePacer pacer = new FramePacer(MachineTypes.SPECTRUM48K);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            pacer.awaitNextFrame();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 4 * pacer.getFramePeriodNs(), "Frames must not run faster than real time");
+        assertEquals(5, pacer.getFrames());
+
+        Thread.sleep(pacer.getFramePeriodNs() * 2 / 1_000_000);
+        pacer.awaitNextFrame();
+        assertEquals(1, pacer.getOverruns());
+    }
+
+}
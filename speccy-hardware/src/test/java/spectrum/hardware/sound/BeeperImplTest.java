@@ -0,0 +1,81 @@
+package spectrum.hardware.sound;
+
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.sound.mixer.OpenMixer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeeperImplTest {
+
+    private static final int FRAMES = 5;
+    // Speaker toggles every 4321 T-states, about 54 samples apart
+    private static final int HALF_PERIOD = 4321;
+
+    @Test
+    void portEdgesReachTheMixerAtTheirSamples() {
+        MachineSettings settings = MachineSettings.ofDefault();
+        int frameTStates = settings.getMachineType().tstatesFrame;
+        double tStatesPerSample = (double) settings.getMachineType().clockFreq / settings.getAudioSampleRate();
+        OpenMixer mixer = new OpenMixer(settings.getAudioSampleRate());
+        BeeperImpl beeper = new BeeperImpl(settings, mixer);
+        beeper.init();
+        beeper.open();
+
+        List<Long> edges = new ArrayList<>();
+        short[] samples = new short[0];
+        boolean speaker = false;
+        long t = HALF_PERIOD;
+        long now = 0;
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            long end = (long) frame * frameTStates;
+            for (; t < end; t += HALF_PERIOD) {
+                beeper.ticks(t, (int) (t - now));
+                now = t;
+                speaker = !speaker;
+                beeper.outPort(0xFE, speaker ? 0x10 : 0x00);
+                // Other bits and ports do not move the speaker
+                beeper.outPort(0xFE, speaker ? 0x17 : 0x07);
+                beeper.outPort(0xFD, speaker ? 0x00 : 0x10);
+                edges.add(t);
+            }
+            beeper.ticks(end, (int) (end - now));
+            now = end;
+            beeper.endFrame();
+
+            // Every frame delivers its share of samples, the fraction carried to the next one
+            short[] frameSamples = mixer.drainLeft("beeper");
+            assertEquals(end / tStatesPerSample - samples.length, frameSamples.length, 1, "frame " + frame);
+            int before = samples.length;
+            samples = Arrays.copyOf(samples, before + frameSamples.length);
+            System.arraycopy(frameSamples, 0, samples, before, frameSamples.length);
+        }
+        assertEquals(FRAMES * frameTStates / tStatesPerSample, samples.length, 1);
+
+        // Edge positions: the largest sample step around each expected position, its sign alternating.
+        // The band-limited step is centred (TAPS - 1) / 2 samples after the edge
+        double step = Sound.BEEPER_AMPLITUDE * beeper.getVolume();
+        for (int i = 0; i < edges.size(); i++) {
+            int expected = (int) Math.round(edges.get(i) / tStatesPerSample + (BlipBuffer.TAPS - 1) / 2.0);
+            if (expected + 8 >= samples.length) {
+                break;
+            }
+            int found = expected - 8;
+            for (int s = expected - 8; s <= expected + 8; s++) {
+                if (Math.abs(samples[s] - samples[s - 1]) > Math.abs(samples[found] - samples[found - 1])) {
+                    found = s;
+                }
+            }
+            int delta = samples[found] - samples[found - 1];
+            assertTrue(Math.abs(delta) > step * 0.3, "edge " + i + " step " + delta);
+            assertEquals(i % 2 == 0, delta > 0, "edge " + i + " direction");
+            assertEquals(expected, found, 1, "edge " + i);
+        }
+    }
+
+}
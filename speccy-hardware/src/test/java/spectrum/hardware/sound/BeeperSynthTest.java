@@ -0,0 +1,68 @@
+package spectrum.hardware.sound;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeeperSynthTest {
+
+    private static final int CLOCK = 3_500_000;
+    private static final int SAMPLE_RATE = 44100;
+    private static final int FRAME = 69888;
+    private static final int AMPLITUDE = 8000;
+
+    // Square wave with the given half period for some frames, returns the last frame
+    private static double[] square(BeeperSynth synth, int halfPeriod, int frames) {
+        double[] out = new double[synth.getMaxFrameSamples()];
+        int count = 0;
+        boolean state = false;
+        long t = 0;
+        for (int frame = 1; frame <= frames; frame++) {
+            long end = (long) frame * FRAME;
+            for (; t < end; t += halfPeriod) {
+                state = !state;
+                synth.edge(t, state);
+            }
+            count = synth.readFrame(end, out);
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    @Test
+    void edgesKeepTimingAcrossFrames() {
+        BeeperSynth synth = new BeeperSynth(CLOCK, SAMPLE_RATE, FRAME, AMPLITUDE);
+        // 1 kHz
+        double[] samples = square(synth, CLOCK / 2000, 10);
+
+        assertEquals((double) FRAME * SAMPLE_RATE / CLOCK, samples.length, 1);
+        int crossings = 0;
+        boolean last = samples[0] > AMPLITUDE / 2.0;
+        for (double sample : samples) {
+            boolean on = sample > AMPLITUDE / 2.0;
+            if (on != last) {
+                crossings++;
+                last = on;
+            }
+        }
+        assertEquals(2000.0 * FRAME / CLOCK, crossings, 1);
+    }
+
+    @Test
+    void toneAboveNyquistDoesNotAlias() {
+        BeeperSynth synth = new BeeperSynth(CLOCK, SAMPLE_RATE, FRAME, AMPLITUDE);
+        // About 30 kHz, point sampling would fold it down to an audible full-scale tone
+        double[] samples = square(synth, 58, 4);
+
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double sample : samples) {
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+        assertTrue(max - min < AMPLITUDE * 0.25, "ripple " + (max - min));
+    }
+
+}
@@ -0,0 +1,160 @@
+package spectrum.hardware.sound.ay;
+
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.sound.mixer.AudioMixer;
+import spectrum.hardware.ula.ClockEventScheduler;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AY38912Test {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int FRAME = 69888;
+    private static final int FRAMES = 4;
+    private static final int SELECT = 0xFFFD;
+    private static final int DATA = 0xBFFD;
+
+    // T-state, register, value; mid-frame writes, some on the same T-state
+    private static final int[][] WRITES = {
+            {100, 7, 0x38},         // tones A, B, C on
+            {100, 8, 0x0F},
+            {100, 0, 0x40},
+            {12_345, 9, 0x0C},
+            {12_345, 2, 0x90},
+            {30_001, 1, 0x01},
+            {FRAME + 7, 10, 0x10},  // channel C on the envelope
+            {FRAME + 7, 11, 0x20},
+            {FRAME + 7, 13, 0x0E},
+            {FRAME + 40_000, 7, 0x30},
+            {FRAME + 40_000, 6, 0x05},
+            {2 * FRAME, 8, 0x00},   // on the frame boundary
+            {2 * FRAME + 33_333, 13, 0x08},
+            {3 * FRAME + 69_000, 9, 0x00},
+    };
+
+    /**
+     * Output keeping the left samples instead of playing them.
+     */
+    private static class CaptureOutput extends AyAudioOutput {
+        double[] samples = new double[FRAMES * FRAME / 64];
+        int count;
+
+        CaptureOutput() {
+            super(new AudioMixer(SAMPLE_RATE));
+        }
+
+        @Override
+        public void open() {
+            // No line
+        }
+
+        @Override
+        public void close() {
+            // No line
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void writeSample(double left, double right) {
+            samples[count++] = left;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(samples, count);
+        }
+    }
+
+    /**
+     * Run the writes as the ULA does: clock events at the times the AY asks for,
+     * a sync before every port access and at the frame end.
+     */
+    private static double[] render(MachineSettings.AyCoreTypes coreType, boolean eventDriven, int[][] writes) {
+        MachineSettings settings = MachineSettings.ofDefault().setAyCoreType(coreType);
+        CaptureOutput output = new CaptureOutput();
+        AY38912 ay = new AY38912(settings, SAMPLE_RATE, output);
+        ay.setEventDriven(eventDriven);
+        ay.init();
+        ay.open();
+
+        long[] now = new long[1];
+        int next = 0;
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            long end = (long) frame * FRAME;
+            for (; next < writes.length && writes[next][0] < end; next++) {
+                sync(ay, now, writes[next][0]);
+                ay.outPort(SELECT, writes[next][1]);
+                ay.outPort(DATA, writes[next][2]);
+            }
+            sync(ay, now, end);
+            ay.endFrame();
+        }
+        return output.toArray();
+    }
+
+    private static void sync(AY38912 ay, long[] now, long target) {
+        long event;
+        while ((event = ay.nextEventTStates(now[0])) < target) {
+            ay.ticks(event, (int) (event - now[0]));
+            now[0] = event;
+        }
+        if (target > now[0]) {
+            ay.ticks(target, (int) (target - now[0]));
+            now[0] = target;
+        }
+    }
+
+    @Test
+    void eventDrivenMatchesPerSampleRendering() {
+        for (MachineSettings.AyCoreTypes coreType : MachineSettings.AyCoreTypes.values()) {
+            double[] perSample = render(coreType, false, WRITES);
+            double[] eventDriven = render(coreType, true, WRITES);
+
+            // Whole frames of samples, not silence
+            assertEquals(FRAMES * (double) FRAME * SAMPLE_RATE / 3_500_000, perSample.length, 1, coreType.name());
+            assertTrue(Arrays.stream(perSample).max().orElse(0) > 1000, coreType.name());
+            assertArrayEquals(perSample, eventDriven, coreType.name());
+        }
+    }
+
+    @Test
+    void writeTakesEffectAtItsSample() {
+        double tStatesPerSample = 3_500_000.0 / SAMPLE_RATE;
+        int write = FRAME + 20_000;
+        // Fixed level on channel A with the tone and noise off, switched on mid-frame
+        int[][] writes = {{100, 7, 0x3F}, {write, 8, 0x0F}};
+        for (MachineSettings.AyCoreTypes coreType : MachineSettings.AyCoreTypes.values()) {
+            for (boolean eventDriven : new boolean[]{false, true}) {
+                double[] samples = render(coreType, eventDriven, writes);
+
+                int first = -1;
+                for (int i = 0; i < samples.length; i++) {
+                    if (Math.abs(samples[i]) > 100) {
+                        first = i;
+                        break;
+                    }
+                }
+                // The band-limited step of the clock-exact core lands a few samples late
+                assertEquals(write / tStatesPerSample, first, 4, coreType + " event-driven " + eventDriven);
+            }
+        }
+    }
+
+    @Test
+    void eventDrivenNeverSchedulesClockEvents() {
+        AY38912 ay = new AY38912(MachineSettings.ofDefault(), SAMPLE_RATE, new CaptureOutput());
+        ay.open();
+
+        ay.setEventDriven(true);
+        assertEquals(ClockEventScheduler.NEVER, ay.nextEventTStates(0));
+        ay.setEventDriven(false);
+        assertTrue(ay.nextEventTStates(0) > 0);
+    }
+
+}
@@ -0,0 +1,71 @@
+package spectrum.hardware.sound.ay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AyChipCoreTest {
+
+    private static final double AY_CLOCK = 1_773_400;
+    private static final int SAMPLE_RATE = 44100;
+
+    private static void write(AyChipCore core, int register, int value) {
+        core.selectRegister(register);
+        core.writeData(value);
+    }
+
+    // Output level changes over one second of tone A
+    private static int countToggles(int period) {
+        AyChipCore core = new AyChipCore(AY_CLOCK, SAMPLE_RATE);
+        core.reset();
+        core.setPanningMode(PanningMode.MONO);
+        write(core, AyRegister.TONE_A_FINE.getIndex(), period & 0xFF);
+        write(core, AyRegister.TONE_A_COARSE.getIndex(), period >> 8);
+        write(core, AyRegister.MIXER.getIndex(), 0x3E); // tone A only
+        write(core, AyRegister.AMPLITUDE_A.getIndex(), 0x0F);
+
+        double[] sample = new double[2];
+        int toggles = 0;
+        boolean last = false;
+        for (int i = 0; i < SAMPLE_RATE; i++) {
+            core.generateSample(sample, 0);
+            boolean on = sample[0] > 0;
+            if (on != last) {
+                toggles++;
+                last = on;
+            }
+        }
+        return toggles;
+    }
+
+    @Test
+    void tonePitchFollowsPeriodRegisters() {
+        int low = countToggles(504);
+        int high = countToggles(252);
+        assertTrue(low > 0);
+        assertEquals(2.0, (double) high / low, 0.02);
+    }
+
+    @Test
+    void fixedLevelWhenToneAndNoiseDisabled() {
+        AyChipCore core = new AyChipCore(AY_CLOCK, SAMPLE_RATE);
+        core.reset();
+        write(core, AyRegister.TONE_A_FINE.getIndex(), 0x20);
+        write(core, AyRegister.MIXER.getIndex(), 0x3F);
+        write(core, AyRegister.AMPLITUDE_A.getIndex(), 0x0F);
+
+        // Disabled tone and noise hold the channel high, so it outputs its amplitude unmodulated
+        double[] sample = new double[4];
+        core.generateSample(sample, 2);
+        double left = sample[2];
+        double right = sample[3];
+        assertTrue(left > 0);
+        for (int i = 0; i < 1000; i++) {
+            core.generateSample(sample, 2);
+            assertEquals(left, sample[2]);
+            assertEquals(right, sample[3]);
+        }
+    }
+
+}
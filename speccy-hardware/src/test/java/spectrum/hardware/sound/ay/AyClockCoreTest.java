@@ -0,0 +1,98 @@
+package spectrum.hardware.sound.ay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AyClockCoreTest {
+
+    private static final double AY_CLOCK = 1_773_400;
+    private static final int[] SAMPLE_RATES = {44100, 48000};
+
+    private static void write(AyCore core, int register, int value) {
+        core.selectRegister(register);
+        core.writeData(value);
+    }
+
+    // Level changes over one second of tone A
+    private static int countToggles(int period, int sampleRate) {
+        AyCore core = new AyClockCore(AY_CLOCK, sampleRate);
+        core.setPanningMode(PanningMode.MONO);
+        write(core, AyRegister.TONE_A_FINE.getIndex(), period & 0xFF);
+        write(core, AyRegister.TONE_A_COARSE.getIndex(), period >> 8);
+        write(core, AyRegister.MIXER.getIndex(), 0x3E); // tone A only
+        write(core, AyRegister.AMPLITUDE_A.getIndex(), 0x0F);
+        return countLevelSwings(core, sampleRate);
+    }
+
+    // Level changes over one second of a saw envelope on channel A
+    private static int countEnvelopeToggles(int period, int sampleRate) {
+        AyCore core = new AyClockCore(AY_CLOCK, sampleRate);
+        core.setPanningMode(PanningMode.MONO);
+        write(core, AyRegister.MIXER.getIndex(), 0x3F); // envelope level only
+        write(core, AyRegister.AMPLITUDE_A.getIndex(), 0x10);
+        write(core, AyRegister.ENVELOPE_FINE.getIndex(), period & 0xFF);
+        write(core, AyRegister.ENVELOPE_COARSE.getIndex(), period >> 8);
+        write(core, AyRegister.ENVELOPE_SHAPE.getIndex(), 0x08); // repeating decay
+        return countLevelSwings(core, sampleRate);
+    }
+
+    // Swings between a quarter and three quarters of full level; the hysteresis
+    // keeps band-limited ringing on a slow ramp from counting as extra edges
+    private static int countLevelSwings(AyCore core, int sampleRate) {
+        double full = VolumeTable.getAmplitude(15) * AyConstants.AY_GAIN * PanningMode.MONO.getLeftPan(0);
+        double[] samples = new double[sampleRate * 2];
+        core.render(samples, 0, sampleRate);
+        int toggles = 0;
+        boolean on = false;
+        for (int i = 0; i < sampleRate; i++) {
+            double sample = samples[i * 2];
+            if (on ? sample < full / 4 : sample > full * 3 / 4) {
+                toggles++;
+                on = !on;
+            }
+        }
+        return toggles;
+    }
+
+    @Test
+    void toneHasDatasheetPitch() {
+        for (int sampleRate : SAMPLE_RATES) {
+            for (int period : new int[]{504, 252, 63}) {
+                // f = clock / (16 * period), two level changes per cycle
+                double expected = 2 * AY_CLOCK / (16.0 * period);
+                assertEquals(expected, countToggles(period, sampleRate), expected * 0.01,
+                        sampleRate + " Hz, period " + period);
+            }
+        }
+    }
+
+    @Test
+    void envelopeHasDatasheetRate() {
+        for (int sampleRate : SAMPLE_RATES) {
+            for (int period : new int[]{64, 16, 4}) {
+                // f = clock / (256 * period), two level changes per cycle
+                double expected = 2 * AY_CLOCK / (256.0 * period);
+                assertEquals(expected, countEnvelopeToggles(period, sampleRate), expected * 0.01,
+                        sampleRate + " Hz, envelope period " + period);
+            }
+        }
+    }
+
+    @Test
+    void silentWhenAllChannelsDisabled() {
+        for (int sampleRate : SAMPLE_RATES) {
+            AyCore core = new AyClockCore(AY_CLOCK, sampleRate);
+            write(core, AyRegister.MIXER.getIndex(), 0x3F);
+            write(core, AyRegister.AMPLITUDE_A.getIndex(), 0x00);
+
+            double[] sample = new double[4];
+            for (int i = 0; i < 1000; i++) {
+                core.generateSample(sample, 2);
+                assertEquals(0, sample[2]);
+                assertEquals(0, sample[3]);
+            }
+        }
+    }
+
+}
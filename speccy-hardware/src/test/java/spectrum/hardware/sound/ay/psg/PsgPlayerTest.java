@@ -0,0 +1,109 @@
+package spectrum.hardware.sound.ay.psg;
+
+import machine.MachineTypes;
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.sound.ay.AY38912;
+import spectrum.hardware.sound.ay.AyConstants;
+import spectrum.hardware.sound.ay.AyRegister;
+import spectrum.hardware.sound.mixer.AudioMixer;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PsgPlayerTest {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    private static void write(AY38912 ay, int register, int value) {
+        ay.outPort(0xFFFD, register);
+        ay.outPort(0xBFFD, value);
+    }
+
+    private static AyRecorder recordTune(int frames) {
+        MachineSettings settings = MachineSettings.ofDefault().setMachineType(MachineTypes.SPECTRUM128K);
+        AY38912 ay = new AY38912(settings, new AudioMixer(SAMPLE_RATE));
+        AyRecorder recorder = new AyRecorder(50);
+        ay.setRecorder(recorder);
+        write(ay, AyRegister.MIXER.getIndex(), 0x3E);
+        write(ay, AyRegister.AMPLITUDE_A.getIndex(), 0x0F);
+        for (int frame = 0; frame < frames; frame++) {
+            write(ay, AyRegister.TONE_A_FINE.getIndex(), 100 + frame);
+            if (frame == 2) {
+                write(ay, AyRegister.ENVELOPE_SHAPE.getIndex(), 0x0E);
+            }
+            ay.endFrame();
+        }
+        return recorder;
+    }
+
+    @Test
+    void playsRecordedRegisterStream() {
+        AyRecorder recorder = recordTune(10);
+        assertEquals(10, recorder.getFrames());
+
+        PsgPlayer player = new PsgPlayer(recorder.toPsg(), SAMPLE_RATE);
+        double[] samples = new double[player.getMaxFrameSamples() * 2];
+        long total = 0;
+        double peak = 0;
+        int count;
+        while ((count = player.renderFrame(samples)) >= 0) {
+            // Writes of the frame are applied before it is rendered
+            assertEquals(100 + player.getFrames() - 1,
+                    player.getCore().getRegisters().read(AyRegister.TONE_A_FINE.getIndex()));
+            total += count;
+            for (int i = 0; i < count * 2; i++) {
+                peak = Math.max(peak, Math.abs(samples[i]));
+            }
+        }
+
+        assertTrue(player.isFinished());
+        assertEquals(10, player.getFrames());
+        assertEquals(10 * SAMPLE_RATE / 50, total);
+        assertEquals(109, player.getCore().getRegisters().read(AyRegister.TONE_A_FINE.getIndex()));
+        assertTrue(peak > 0, "tone must be audible");
+    }
+
+    @Test
+    void skipsCommandsThatAreNotRegisters() {
+        byte[] psg = new byte[AyRecorder.PSG_HEADER_SIZE + 6];
+        System.arraycopy(AyRecorder.PSG_SIGNATURE, 0, psg, 0, 4);
+        int p = AyRecorder.PSG_HEADER_SIZE;
+        psg[p++] = 0x30;
+        psg[p++] = 0x08;
+        psg[p++] = 0x08;
+        psg[p++] = 0x0F;
+        psg[p++] = (byte) AyRecorder.PSG_END_OF_FRAME;
+        psg[p] = (byte) AyRecorder.PSG_END_OF_MUSIC;
+
+        PsgPlayer player = new PsgPlayer(psg, SAMPLE_RATE);
+        assertTrue(player.renderFrame(new double[player.getMaxFrameSamples() * 2]) > 0);
+        // 0x30 and its byte are dropped, not taken as a write of 0x08 to register 0
+        assertEquals(0, player.getCore().getRegisters().read(AyRegister.TONE_A_FINE.getIndex()));
+        assertEquals(0x0F, player.getCore().getRegisters().read(AyRegister.AMPLITUDE_A.getIndex()));
+    }
+
+    @Test
+    void exportsInterleavedYm() {
+        AyRecorder recorder = recordTune(4);
+
+        ByteBuffer ym = ByteBuffer.wrap(recorder.toYm(1_773_400, "test", "", ""));
+        assertEquals("YM5!LeOnArD!", new String(ym.array(), 0, 12));
+        assertEquals(4, ym.getInt(12));
+        assertEquals(1_773_400, ym.getInt(22));
+        int data = 34 + "test\0\0\0".length();
+        // Register 0 of frames 0..3, then register 1
+        for (int f = 0; f < 4; f++) {
+            assertEquals(100 + f, ym.get(data + f) & 0xFF);
+        }
+        // Envelope shape only where it was written
+        int shape = data + AyRecorder.SHAPE_REGISTER * 4;
+        assertEquals(AyRecorder.YM_NO_SHAPE, ym.get(shape) & 0xFF);
+        assertEquals(0x0E, ym.get(shape + 2) & 0xFF);
+        assertEquals(AyRecorder.YM_NO_SHAPE, ym.get(shape + 3) & 0xFF);
+        assertEquals("End!", new String(ym.array(), ym.capacity() - 4, 4));
+        assertEquals(AyConstants.REGISTER_COUNT * 4, ym.capacity() - 4 - data);
+    }
+
+}
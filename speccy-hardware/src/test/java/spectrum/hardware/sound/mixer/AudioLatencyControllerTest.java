@@ -0,0 +1,73 @@
+package spectrum.hardware.sound.mixer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioLatencyControllerTest {
+
+    private static final long FRAME_NS = 20_000_000;
+
+    @Test
+    void underrunGrowsTargetAndStableRunShrinksIt() {
+        AudioLatencyController controller = new AudioLatencyController(44100, 8192);
+        long now = FRAME_NS;
+        controller.update(now, 1024, 0);
+
+        controller.lineRanDry();
+        controller.update(now += FRAME_NS, 0, 0);
+        assertEquals(1, controller.getUnderruns());
+        assertEquals(AudioLatencyController.INITIAL_TARGET_FRAMES + AudioLatencyController.GROW_FRAMES,
+                controller.getTargetFrames());
+
+        for (int i = 0; i < AudioLatencyController.STABLE_FRAMES; i++) {
+            controller.update(now += FRAME_NS, 1024, 0);
+        }
+        assertEquals(AudioLatencyController.INITIAL_TARGET_FRAMES + AudioLatencyController.GROW_FRAMES
+                - AudioLatencyController.SHRINK_FRAMES, controller.getTargetFrames());
+    }
+
+    @Test
+    void pauseIsNoUnderrun() {
+        AudioLatencyController controller = new AudioLatencyController(44100, 8192);
+        controller.update(FRAME_NS, 1024, 0);
+
+        controller.lineRanDry();
+        controller.update(FRAME_NS + 1_000_000_000L, 1024, 0);
+
+        assertEquals(0, controller.getUnderruns());
+    }
+
+    @Test
+    void ratioStaysWithinCorrection() {
+        AudioLatencyController controller = new AudioLatencyController(44100, 8192);
+        long now = 0;
+        for (int i = 0; i < 200; i++) {
+            controller.update(now += FRAME_NS, 8192, i);
+        }
+        assertEquals(1 + AudioLatencyController.MAX_RATIO_CORRECTION, controller.getRatio(), 1e-6);
+        assertEquals(199, controller.getOverruns());
+        assertEquals(1.0, controller.getTargetFill());
+
+        for (int i = 0; i < 200; i++) {
+            controller.update(now += FRAME_NS, 0, 199);
+        }
+        assertEquals(1 - AudioLatencyController.MAX_RATIO_CORRECTION, controller.getRatio(), 1e-6);
+        assertEquals(0.0, controller.getTargetFill());
+    }
+
+    @Test
+    void resamplerOutputFollowsRatio() {
+        LinearResampler resampler = new LinearResampler();
+        int[] in = new int[256 * 2];
+        int[] out = new int[LinearResampler.maxOutput(256, 0.995) * 2];
+        long output = 0;
+        for (int block = 0; block < 100; block++) {
+            output += resampler.process(in, 256, 1.005, out);
+        }
+        double expected = 100 * 256 / 1.005;
+        assertTrue(Math.abs(output - expected) <= 1, "output " + output + ", expected " + expected);
+    }
+
+}
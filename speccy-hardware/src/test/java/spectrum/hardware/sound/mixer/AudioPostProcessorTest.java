@@ -0,0 +1,59 @@
+package spectrum.hardware.sound.mixer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioPostProcessorTest {
+
+    private static final int FRAMES = AudioMixer.BLOCK_FRAMES;
+
+    @Test
+    void blocksConstantOffset() {
+        AudioPostProcessor post = new AudioPostProcessor(44100);
+        int[] block = new int[FRAMES * 2];
+        for (int i = 0; i < 20; i++) {
+            Arrays.fill(block, 10_000);
+            post.process(block, FRAMES);
+        }
+        assertTrue(Math.abs(block[FRAMES * 2 - 2]) < 10, "left " + block[FRAMES * 2 - 2]);
+        assertTrue(Math.abs(block[FRAMES * 2 - 1]) < 10, "right " + block[FRAMES * 2 - 1]);
+    }
+
+    @Test
+    void monoWidthAndGain() {
+        AudioPostProcessor post = new AudioPostProcessor(44100);
+        post.setDcBlocking(false);
+        post.setStereoWidth(0);
+        post.setGain(0.5);
+        int[] block = new int[FRAMES * 2];
+        for (int i = 0; i < FRAMES; i++) {
+            block[i * 2] = 4000;
+        }
+
+        post.process(block, FRAMES);
+
+        for (int i = 0; i < FRAMES; i++) {
+            assertEquals(1000, block[i * 2]);
+            assertEquals(1000, block[i * 2 + 1]);
+        }
+    }
+
+    @Test
+    void speakerLowPassSettlesOnStep() {
+        AudioPostProcessor post = new AudioPostProcessor(44100);
+        post.setDcBlocking(false);
+        post.setSpeakerCutoff(2000);
+        int[] block = new int[FRAMES * 2];
+        Arrays.fill(block, 8000);
+
+        post.process(block, FRAMES);
+
+        assertTrue(block[0] < 8000 / 2, "first " + block[0]);
+        assertEquals(8000, block[FRAMES * 2 - 2], 1);
+    }
+
+}
@@ -0,0 +1,55 @@
+package spectrum.hardware.sound.mixer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MixerChannelTest {
+
+    @Test
+    void dropsFramesWhenFullAndWrapsAround() {
+        MixerChannel channel = new MixerChannel("test", 8);
+        int[] acc = new int[16];
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                assertTrue(channel.write((short) i, (short) -i));
+            }
+            assertFalse(channel.write((short) 99));
+            assertEquals(8, channel.available());
+
+            Arrays.fill(acc, 0);
+            assertEquals(8, channel.mixInto(acc, 8));
+            for (int i = 0; i < 8; i++) {
+                assertEquals(i * AudioMixer.UNITY_GAIN, acc[i * 2]);
+                assertEquals(-i * AudioMixer.UNITY_GAIN, acc[i * 2 + 1]);
+            }
+            assertEquals(0, channel.available());
+        }
+        assertEquals(3, channel.getDroppedFrames());
+    }
+
+    @Test
+    void mixesChannelsWithGain() {
+        MixerChannel beeper = new MixerChannel("beeper", 16);
+        MixerChannel ay = new MixerChannel("ay", 16);
+        ay.setGain(0.5);
+        for (int i = 0; i < 4; i++) {
+            beeper.write((short) 1000);
+        }
+        ay.write((short) 2000, (short) 4000);
+
+        int[] acc = new int[8];
+        assertEquals(4, beeper.mixInto(acc, 4));
+        // Short source, the rest of the block stays silent
+        assertEquals(1, ay.mixInto(acc, 4));
+
+        assertEquals(2000, acc[0] >> AudioMixer.GAIN_BITS);
+        assertEquals(3000, acc[1] >> AudioMixer.GAIN_BITS);
+        assertEquals(1000, acc[2] >> AudioMixer.GAIN_BITS);
+        assertEquals(1000, acc[7] >> AudioMixer.GAIN_BITS);
+    }
+
+}
@@ -0,0 +1,47 @@
+package spectrum.hardware.sound.mixer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mixer that reports an open line without opening one, so sources queue their
+ * samples in tests; the samples are read back from the channels by name.
+ */
+public class OpenMixer extends AudioMixer {
+
+    private final Map<String, MixerChannel> byName = new HashMap<>();
+
+    public OpenMixer(int sampleRate) {
+        super(sampleRate);
+    }
+
+    @Override
+    public MixerChannel addChannel(String name) {
+        MixerChannel channel = super.addChannel(name);
+        byName.put(name, channel);
+        return channel;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    /**
+     * Take all queued frames of a channel.
+     *
+     * @return left samples, one per frame
+     */
+    public short[] drainLeft(String name) {
+        MixerChannel channel = byName.get(name);
+        int frames = channel.available();
+        int[] acc = new int[frames * 2];
+        channel.mixInto(acc, frames);
+        short[] samples = new short[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = (short) (acc[i * 2] >> GAIN_BITS);
+        }
+        return samples;
+    }
+
+}
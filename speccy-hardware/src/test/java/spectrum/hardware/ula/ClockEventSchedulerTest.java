@@ -0,0 +1,76 @@
+package spectrum.hardware.ula;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClockEventSchedulerTest {
+
+    private static class PeriodicListener implements ClockListener {
+
+        private final long period;
+        private final List<Long> calls = new ArrayList<>();
+        private long total;
+
+        PeriodicListener(long period) {
+            this.period = period;
+        }
+
+        @Override
+        public void ticks(long tStates, int delta) {
+            calls.add(tStates);
+            total += delta;
+        }
+
+        @Override
+        public long nextEventTStates(long tStates) {
+            return period == 0 ? ClockEventScheduler.NEVER : tStates + period;
+        }
+    }
+
+    @Test
+    void dispatchesOnlyWhenEventIsDue() {
+        ClockEventScheduler scheduler = new ClockEventScheduler();
+        PeriodicListener listener = new PeriodicListener(100);
+        scheduler.addListener(listener, 0);
+
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            now += 4;
+            if (now >= scheduler.getNextEventTStates()) {
+                scheduler.dispatch(now);
+            }
+        }
+
+        assertEquals(List.of(100L, 200L, 300L, 400L), listener.calls);
+        assertEquals(400, listener.total);
+    }
+
+    @Test
+    void syncDeliversElapsedTStatesToIdleListeners() {
+        ClockEventScheduler scheduler = new ClockEventScheduler();
+        PeriodicListener idle = new PeriodicListener(0);
+        PeriodicListener everyTState = new PeriodicListener(1);
+        scheduler.addListener(idle, 0);
+        scheduler.addListener(everyTState, 0);
+
+        for (long now = 1; now <= 50; now++) {
+            if (now >= scheduler.getNextEventTStates()) {
+                scheduler.dispatch(now);
+            }
+        }
+        assertTrue(idle.calls.isEmpty());
+        assertEquals(50, everyTState.calls.size());
+
+        scheduler.sync(57);
+
+        assertEquals(List.of(57L), idle.calls);
+        assertEquals(57, idle.total);
+        assertEquals(57, everyTState.total);
+    }
+
+}
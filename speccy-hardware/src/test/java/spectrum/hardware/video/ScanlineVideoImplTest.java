@@ -0,0 +1,143 @@
+package spectrum.hardware.video;
+
+import machine.MachineTypes;
+import org.junit.jupiter.api.Test;
+import spectrum.hardware.HeadlessSpectrum;
+import spectrum.hardware.machine.CpuImplementation;
+import spectrum.hardware.machine.MachineSettings;
+import spectrum.hardware.memory.Memory128KImpl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScanlineVideoImplTest {
+
+    private static HeadlessSpectrum spectrum(MachineTypes machineType, VideoRenderMode renderMode) {
+        HeadlessSpectrum spectrum = new HeadlessSpectrum(MachineSettings.ofDefault(CpuImplementation.SANCHES)
+                .setMachineType(machineType)
+                .setEnableDiskController(false));
+        ((ScanlineVideoImpl) spectrum.getEmulator().getVideo()).setRenderMode(renderMode);
+        return spectrum;
+    }
+
+    // Driver mirroring only the reported dirty spans
+    private static class MirrorDriver implements VideoDriver {
+
+        private final int[] mirror = new int[Video.TOTAL_WIDTH * Video.TOTAL_HEIGHT];
+
+        @Override
+        public void presentFrame(int[] pixels, int stride, DirtyRegion dirty) {
+            for (int y = dirty.getMinY(); y <= dirty.getMaxY(); y++) {
+                int from = y * stride + dirty.getRowStart(y);
+                System.arraycopy(pixels, from, mirror, from, dirty.getRowEnd(y) - dirty.getRowStart(y));
+            }
+        }
+
+        @Override
+        public void refreshScreen() {
+        }
+
+        @Override
+        public void drawPixel(int x, int y, int color) {
+            throw new AssertionError("Per-pixel path must not be used");
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void dirtyRegionsKeepDriverInSync() {
+        HeadlessSpectrum spectrum = spectrum(MachineTypes.SPECTRUM48K, VideoRenderMode.CATCH_UP);
+        MirrorDriver driver = new MirrorDriver();
+        spectrum.getEmulator().getVideo().setVideoDriver(driver);
+        for (int frame = 0; frame < 120; frame++) {
+            spectrum.runFrames(1);
+            assertArrayEquals(spectrum.getFrameBuffer(), driver.mirror, "frame " + frame);
+        }
+    }
+
+    @Test
+    void catchUpRenderingMatchesPerTStateRendering() {
+        for (MachineTypes machineType : new MachineTypes[]{MachineTypes.SPECTRUM48K, MachineTypes.SPECTRUM128K}) {
+            HeadlessSpectrum eager = spectrum(machineType, VideoRenderMode.PER_TSTATE);
+            HeadlessSpectrum lazy = spectrum(machineType, VideoRenderMode.CATCH_UP);
+            for (int frame = 0; frame < 120; frame++) {
+                eager.runFrames(1);
+                lazy.runFrames(1);
+                assertArrayEquals(eager.getFrameBuffer(), lazy.getFrameBuffer(), machineType + " frame " + frame);
+            }
+        }
+    }
+
+    @Test
+    void showsShadowScreenBank() {
+        MachineSettings settings = MachineSettings.ofDefault(CpuImplementation.SANCHES)
+                .setMachineType(MachineTypes.SPECTRUM128K);
+        Memory128KImpl memory = new Memory128KImpl(settings);
+        memory.init();
+        ScanlineVideoImpl video = new ScanlineVideoImpl(null, memory, settings);
+        int firstScreenPixel = Video.BORDER_V_SIZE * Video.TOTAL_WIDTH + Video.BORDER_H_SIZE;
+
+        // Bank 7 paged at $C000 and shown: white paper in the first cell
+        memory.outPort(0x7FFD, 0x0F);
+        memory.writeByte(0xD800, 0x38);
+        video.ticks(0, settings.getMachineType().tstatesFrame);
+        video.endFrame();
+        assertEquals(7, video.getFrameBuffer()[firstScreenPixel]);
+
+        // Back to bank 5, still paged at $C000
+        memory.outPort(0x7FFD, 0x07);
+        video.ticks(0, settings.getMachineType().tstatesFrame);
+        video.endFrame();
+        assertEquals(0, video.getFrameBuffer()[firstScreenPixel]);
+    }
+
+    @Test
+    void dirtyCellsMatchScreenMemory() {
+        for (MachineTypes machineType : new MachineTypes[]{MachineTypes.SPECTRUM48K, MachineTypes.SPECTRUM128K}) {
+            HeadlessSpectrum spectrum = spectrum(machineType, VideoRenderMode.DIRTY_CELLS);
+            MirrorDriver driver = new MirrorDriver();
+            spectrum.getEmulator().getVideo().setVideoDriver(driver);
+            for (int frame = 0; frame < 120; frame++) {
+                spectrum.runFrames(1);
+                assertArrayEquals(decodeScreen(spectrum), screenArea(spectrum.getFrameBuffer()), machineType + " frame " + frame);
+                assertArrayEquals(spectrum.getFrameBuffer(), driver.mirror, machineType + " frame " + frame);
+            }
+        }
+    }
+
+    // Reference decode of screen memory, flash phase of the next frame
+    private static int[] decodeScreen(HeadlessSpectrum spectrum) {
+        int flashPhase = (int) ((spectrum.getFrames() - 1) >> 4) & 1;
+        int[] screen = new int[Video.SCREEN_WIDTH * Video.SCREEN_HEIGHT];
+        for (int y = 0; y < Video.SCREEN_HEIGHT; y++) {
+            for (int column = 0; column < 32; column++) {
+                int bitmap = spectrum.getMemory().readByte(0x4000 + ScreenTables.BITMAP_ROW_OFFSET[y] + column);
+                int attr = spectrum.getMemory().readByte(0x4000 + ScreenTables.ATTR_ROW_OFFSET[y] + column);
+                System.arraycopy(ScreenTables.CELL_COLORS, ScreenTables.cellOffset(bitmap, attr, flashPhase),
+                        screen, y * Video.SCREEN_WIDTH + (column << 3), 8);
+            }
+        }
+        return screen;
+    }
+
+    private static int[] screenArea(int[] frameBuffer) {
+        int[] screen = new int[Video.SCREEN_WIDTH * Video.SCREEN_HEIGHT];
+        for (int y = 0; y < Video.SCREEN_HEIGHT; y++) {
+            System.arraycopy(frameBuffer, (y + Video.BORDER_V_SIZE) * Video.TOTAL_WIDTH + Video.BORDER_H_SIZE,
+                    screen, y * Video.SCREEN_WIDTH, Video.SCREEN_WIDTH);
+        }
+        return screen;
+    }
+
+}
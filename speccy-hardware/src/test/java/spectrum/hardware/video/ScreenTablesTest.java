@@ -0,0 +1,38 @@
+package spectrum.hardware.video;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScreenTablesTest {
+
+    @Test
+    void rowOffsetsFollowScreenLayout() {
+        for (int y = 0; y < Video.SCREEN_HEIGHT; y++) {
+            int expected = ((y >> 6) << 11) + ((y & 0x07) << 8) + (((y >> 3) & 0x07) << 5);
+            assertEquals(expected, ScreenTables.BITMAP_ROW_OFFSET[y], "line " + y);
+            assertEquals(0x1800 + (y / 8) * 32, ScreenTables.ATTR_ROW_OFFSET[y], "line " + y);
+        }
+    }
+
+    @Test
+    void cellColorsDecodeInkPaperBrightFlash() {
+        for (int phase = 0; phase < 2; phase++) {
+            for (int attr = 0; attr < 256; attr++) {
+                for (int bitmap = 0; bitmap < 256; bitmap += 37) {
+                    int offset = ScreenTables.cellOffset(bitmap, attr, phase);
+                    for (int bit = 0; bit < 8; bit++) {
+                        boolean set = ((bitmap >> (7 - bit)) & 1) == 1;
+                        boolean inverted = (attr & 0x80) != 0 && phase == 1;
+                        int color = (set != inverted) ? attr & 0x07 : (attr >> 3) & 0x07;
+                        if ((attr & 0x40) != 0) {
+                            color += 8;
+                        }
+                        assertEquals(color, ScreenTables.CELL_COLORS[offset + bit]);
+                    }
+                }
+            }
+        }
+    }
+
+}
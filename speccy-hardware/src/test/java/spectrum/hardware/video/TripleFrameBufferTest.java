@@ -0,0 +1,57 @@
+package spectrum.hardware.video;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripleFrameBufferTest {
+
+    @Test
+    void coalescesUnconsumedFrames() {
+        TripleFrameBuffer exchange = new TripleFrameBuffer(1);
+        assertNull(exchange.acquire());
+
+        for (int frame = 1; frame <= 3; frame++) {
+            exchange.getBackBuffer()[0] = frame;
+            exchange.publish();
+        }
+
+        assertEquals(3, exchange.acquire()[0]);
+        assertNull(exchange.acquire());
+        assertEquals(3, exchange.getFrontBuffer()[0]);
+        assertEquals(3, exchange.getPublishedFrames());
+        assertEquals(2, exchange.getDroppedFrames());
+    }
+
+    @Test
+    void consumerNeverSeesFrameBeingWritten() throws Exception {
+        int size = 1024;
+        int frames = 20_000;
+        TripleFrameBuffer exchange = new TripleFrameBuffer(size);
+        Thread producer = new Thread(() -> {
+            for (int frame = 1; frame <= frames; frame++) {
+                Arrays.fill(exchange.getBackBuffer(), frame);
+                exchange.publish();
+            }
+        });
+        producer.start();
+        int last = 0;
+        while (last < frames) {
+            int[] buffer = exchange.acquire();
+            if (buffer == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int value = buffer[0];
+            for (int v : buffer) {
+                assertEquals(value, v, "Torn frame");
+            }
+            assertTrue(value > last, "Frames must not go back");
+            last = value;
+        }
+        producer.join();
+    }
+
+}
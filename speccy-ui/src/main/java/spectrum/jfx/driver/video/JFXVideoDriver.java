@@ -1,6 +1,7 @@
 package spectrum.jfx.driver.video;
 
 import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.PixelBuffer;
@@ -8,28 +9,56 @@ import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import lombok.Getter;
 import lombok.Setter;
+import spectrum.hardware.video.DirtyRegion;
+import spectrum.hardware.video.TripleFrameBuffer;
+import spectrum.hardware.video.Video;
 import spectrum.hardware.video.VideoDriver;
 import spectrum.hardware.video.ZoomLevel;
 
 import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import static spectrum.jfx.driver.video.ColorsUtils.SPECTRUM_COLORS_ARGB;
 
+/**
+ * JavaFX video driver.
+ * <p>
+ * The emulation thread keeps its own frame of Spectrum colors and publishes a copy
+ * through a {@link TripleFrameBuffer}, with the rows it changed. The FX thread picks up
+ * the latest frame, converts and scales the changed pixels of those rows, and uploads
+ * them. At most one present is queued on the FX thread, frames published meanwhile
+ * are coalesced and their changed rows merged.
+ */
 public class JFXVideoDriver implements VideoDriver {
 
+    private static final int FRAME_SIZE = Video.TOTAL_WIDTH * Video.TOTAL_HEIGHT;
+    private static final DirtyRegion FULL_FRAME = DirtyRegion.full(Video.TOTAL_WIDTH, Video.TOTAL_HEIGHT);
+
     @Getter
     private Canvas canvas;
     @Getter
     private GraphicsContext gc;
     private WritableImage screenImage;
     private PixelBuffer<IntBuffer> pixelBuffer;
+    // FX thread only
     private int[] scaledPixels;
+    // Frame shown by the FX thread, to upload only changed pixels
+    private final int[] shownFrame = new int[FRAME_SIZE];
     @Getter
     private ZoomLevel currentZoom = ZoomLevel.X2;
 
-    private boolean initialized = false;
+    // Emulation thread frame, updated by drawPixel/presentFrame
+    private final int[] frame = new int[FRAME_SIZE];
+    private final TripleFrameBuffer frameExchange = new TripleFrameBuffer(FRAME_SIZE);
+    private final AtomicBoolean presentPending = new AtomicBoolean();
+    // Rows changed by the frames published since the last acquire, guarded by frameExchange
+    private final DirtyRegion publishedDirty = new DirtyRegion(Video.TOTAL_WIDTH, Video.TOTAL_HEIGHT);
+    // Rows of the acquired frame to upload, FX thread only
+    private final DirtyRegion uploadDirty = new DirtyRegion(Video.TOTAL_WIDTH, Video.TOTAL_HEIGHT);
+
+    private volatile boolean initialized = false;
 
     @Setter
     private Consumer<ZoomLevel> zoomChangeListener;
@@ -46,9 +75,9 @@ public class JFXVideoDriver implements VideoDriver {
 
         createBuffers(scaledTotalWidth, scaledTotalHeight);
 
-        clearScreen();
-
         this.initialized = true;
+
+        clearScreen();
     }
 
     @Override
@@ -63,6 +92,8 @@ public class JFXVideoDriver implements VideoDriver {
         pixelBuffer = new PixelBuffer<>(width, height, buffer,
                 PixelFormat.getIntArgbPreInstance());
         screenImage = new WritableImage(pixelBuffer);
+        // Nothing is shown in the new buffers yet
+        Arrays.fill(shownFrame, -1);
     }
 
     @Override
@@ -85,7 +116,8 @@ public class JFXVideoDriver implements VideoDriver {
         canvas.setHeight(scaledTotalHeight);
 
         createBuffers(scaledTotalWidth, scaledTotalHeight);
-        clearScreen();
+        // Redraw the last frame at the new zoom
+        upload(frameExchange.getFrontBuffer(), FULL_FRAME);
 
         if (zoomChangeListener != null) {
             zoomChangeListener.accept(currentZoom);
@@ -94,10 +126,19 @@ public class JFXVideoDriver implements VideoDriver {
 
     @Override
     public void drawPixel(int x, int y, int color) {
-        if (!initialized) {
-            return;
+        frame[y * Video.TOTAL_WIDTH + x] = color;
+    }
+
+    @Override
+    public void presentFrame(int[] pixels, int stride, DirtyRegion dirty) {
+        for (int y = dirty.getMinY(); y <= dirty.getMaxY(); y++) {
+            int start = dirty.getRowStart(y);
+            int length = dirty.getRowEnd(y) - start;
+            if (length > 0) {
+                System.arraycopy(pixels, y * stride + start, frame, y * Video.TOTAL_WIDTH + start, length);
+            }
         }
-        setPixel(x, y, SPECTRUM_COLORS_ARGB[color]);
+        publish(dirty);
     }
 
     @Override
@@ -105,44 +146,109 @@ public class JFXVideoDriver implements VideoDriver {
         clearScreen();
     }
 
+    @Override
+    public void refreshScreen() {
+        // Pixels drawn one by one are not tracked, the whole frame may have changed
+        publish(FULL_FRAME);
+    }
+
+    private void publish(DirtyRegion dirty) {
+        if (!initialized) {
+            return;
+        }
+        System.arraycopy(frame, 0, frameExchange.getBackBuffer(), 0, FRAME_SIZE);
+        // Rows and frame change hands together, the FX thread never takes rows of a frame it has not got
+        synchronized (frameExchange) {
+            publishedDirty.add(dirty);
+            frameExchange.publish();
+        }
+        // Never more than one present waiting in the FX queue
+        if (presentPending.compareAndSet(false, true)) {
+            Platform.runLater(this::present);
+        }
+    }
+
+    // FX thread
+    private void present() {
+        presentPending.set(false);
+        int[] latest;
+        synchronized (frameExchange) {
+            latest = frameExchange.acquire();
+            if (latest == null) {
+                return;
+            }
+            uploadDirty.clear();
+            uploadDirty.add(publishedDirty);
+            publishedDirty.clear();
+        }
+        upload(latest, uploadDirty);
+    }
+
     /**
-     * Draw a pixel on the buffer in argb.
-     *
-     * @param x     - x coordinate
-     * @param y     - y coordinate
-     * @param iARGB - argb color
+     * Scale the pixels of the dirty rows that differ from the shown frame and upload
+     * the changed rectangle. FX thread.
      */
-    private void setPixel(int x, int y, int iARGB) {
-        int scaledX = x * currentZoom.getScale();
-        int scaledY = y * currentZoom.getScale();
+    private void upload(int[] source, DirtyRegion dirty) {
+        int scale = currentZoom.getScale();
         int scaledWidth = getScaledTotalWidth();
-        for (int dy = 0; dy < currentZoom.getScale(); dy++) {
-            for (int dx = 0; dx < currentZoom.getScale(); dx++) {
-                int index = (scaledY + dy) * scaledWidth + (scaledX + dx);
-                if (index >= 0 && index < scaledPixels.length) {
-                    scaledPixels[index] = iARGB;
+        int[] target = scaledPixels;
+        if (target.length != scaledWidth * getScaledTotalHeight()) {
+            // Zoom changed, buffers are not resized yet; the resize redraws the whole screen
+            return;
+        }
+        int minX = Video.TOTAL_WIDTH;
+        int maxX = 0;
+        int minY = Video.TOTAL_HEIGHT;
+        int maxY = -1;
+        for (int y = dirty.getMinY(); y <= dirty.getMaxY(); y++) {
+            if (!dirty.isRowDirty(y)) {
+                continue;
+            }
+            int row = y * Video.TOTAL_WIDTH;
+            int rowOffset = y * scale * scaledWidth;
+            int x0 = -1;
+            int x1 = -1;
+            for (int x = dirty.getRowStart(y); x < dirty.getRowEnd(y); x++) {
+                int color = source[row + x];
+                if (shownFrame[row + x] == color) {
+                    continue;
+                }
+                shownFrame[row + x] = color;
+                int argb = SPECTRUM_COLORS_ARGB[color];
+                int dst = rowOffset + x * scale;
+                for (int dx = 0; dx < scale; dx++) {
+                    target[dst + dx] = argb;
                 }
+                if (x0 < 0) {
+                    x0 = x;
+                }
+                x1 = x + 1;
+            }
+            if (x0 < 0) {
+                continue;
+            }
+            // Duplicate the scaled row for the remaining zoom lines
+            int spanStart = rowOffset + x0 * scale;
+            int spanLength = (x1 - x0) * scale;
+            for (int dy = 1; dy < scale; dy++) {
+                System.arraycopy(target, spanStart, target, spanStart + dy * scaledWidth, spanLength);
             }
+            minX = Math.min(minX, x0);
+            maxX = Math.max(maxX, x1);
+            minY = Math.min(minY, y);
+            maxY = y;
         }
-    }
-
-    @Override
-    public void refreshScreen() {
-        if (!initialized) {
+        if (maxY < 0) {
             return;
         }
-        drawSnapshot();
-    }
-
-    private void drawSnapshot() {
-        Platform.runLater(() -> {
-            pixelBuffer.updateBuffer(pb -> null);
-            gc.drawImage(screenImage, 0, 0, canvas.getWidth(), canvas.getHeight());
-        });
+        Rectangle2D changed = new Rectangle2D(minX * scale, minY * scale,
+                (maxX - minX) * scale, (maxY - minY + 1) * scale);
+        pixelBuffer.updateBuffer(pb -> changed);
+        gc.drawImage(screenImage, 0, 0, canvas.getWidth(), canvas.getHeight());
     }
 
     private void clearScreen() {
-        Arrays.fill(scaledPixels, SPECTRUM_COLORS_ARGB[0]);
-        drawSnapshot();
+        Arrays.fill(frame, 0);
+        refreshScreen();
     }
 }
@@ -6,6 +6,7 @@ import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 import spectrum.hardware.SpectrumEmulator;
+import spectrum.hardware.machine.Machine;
 import spectrum.jfx.driver.input.GamePadGLFWImpl;
 import spectrum.jfx.driver.input.JFXKeyboardDriver;
 import spectrum.jfx.driver.video.JFXVideoDriver;
@@ -44,6 +45,8 @@ public class GUIApplication extends Application {
         videoDriver.setZoomLevel(X2);
         videoDriver.init();
         emulator.init();
+        // The UI drives a single machine, publish it for controllers
+        Machine.setHardwareProvider(emulator);
 
         keyboardDriver = new JFXKeyboardDriver();
         keyboardDriver.reset();
@@ -149,11 +152,8 @@ public class GUIApplication extends Application {
         // Initialize window chrome (difference between window and canvas size)
         controller.initWindowChrome(videoDriver);
 
-        // Set up zoom change listener to resize window and redraw screen
-        videoDriver.setZoomChangeListener(zoomLevel -> {
-            controller.updateWindowSize(videoDriver);
-            emulator.getVideo().redrawScreen();
-        });
+        // Set up zoom change listener to resize window, the driver redraws the last frame itself
+        videoDriver.setZoomChangeListener(zoomLevel -> controller.updateWindowSize(videoDriver));
 
         // Set focus on videoContainer after adding canvas
         controller.getVideoContainer().requestFocus();
@@ -13,15 +13,16 @@ import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Singleton implementation of a ZX Spectrum clock
+ * Implementation of a ZX Spectrum clock.
+ * <p>
+ * Each emulated machine owns its own instance, so several machines can run
+ * side by side in one JVM, each on its own thread.
  *
  * @author jsanchez
  */
 @Slf4j
 @ToString(onlyExplicitlyIncluded = true, includeFieldNames = true)
-public enum SpectrumClock {
-
-    INSTANCE;
+public class SpectrumClock {
 
     @Getter
     @ToString.Include
@@ -35,7 +36,7 @@ public enum SpectrumClock {
     private int timeout;
     private final CopyOnWriteArrayList<ClockTimeoutListener> clockListeners;
 
-    SpectrumClock() {
+    public SpectrumClock() {
 
         this.spectrumModel = MachineTypes.SPECTRUM48K;
         this.clockListeners = new CopyOnWriteArrayList<>();
@@ -412,9 +412,31 @@ public class Z80 {
     // ejecutar la instrucción que está en esa direción.
     protected final BitSet breakpointAt = new BitSet(65536);
 
+    /*
+     * Instruction bytes after the opcode that a subclass has already fetched, e.g. from
+     * a predecoded ROM table with their T-states charged at once. The instruction stream
+     * reads below take them instead of bus cycles, first byte in the low 8 bits.
+     */
+    protected int prefetchedBytes;
+    protected int prefetchedCount;
+
+    /*
+     * Instruction stream reads done on the bus while recording, for a subclass building
+     * such a table: the bytes as above, their count and the T-states they took.
+     */
+    protected boolean recordingStream;
+    protected int recordedBytes;
+    protected int recordedCount;
+    protected int recordedTStates;
+
     // Constructor de la clase
     public Z80(MemIoOps memory, NotifyOps notify) {
-        this.clock = SpectrumClock.INSTANCE;
+        this(memory, notify, new SpectrumClock());
+    }
+
+    // Constructor con el reloj propio de la máquina que ejecuta la CPU
+    public Z80(MemIoOps memory, NotifyOps notify, SpectrumClock clock) {
+        this.clock = clock;
         MemIoImpl = memory;
         NotifyImpl = notify;
         execDone = false;
@@ -1847,6 +1869,62 @@ public class Z80 {
         regPC = memptr = 0x0066;
     }
 
+    // Opcode byte at PC after a prefix (M1 cycle)
+    private int fetchStreamOpcode() {
+        if (prefetchedCount != 0) {
+            return takePrefetched();
+        }
+        if (recordingStream) {
+            long start = MemIoImpl.gettStates();
+            return recordStream(MemIoImpl.fetchOpcode(regPC), start);
+        }
+        return MemIoImpl.fetchOpcode(regPC);
+    }
+
+    // Operand byte at PC
+    private int peekStream8() {
+        if (prefetchedCount != 0) {
+            return takePrefetched();
+        }
+        if (recordingStream) {
+            long start = MemIoImpl.gettStates();
+            return recordStream(MemIoImpl.peek8(regPC), start);
+        }
+        return MemIoImpl.peek8(regPC);
+    }
+
+    // Operand word at PC
+    private int peekStream16() {
+        if (prefetchedCount != 0) {
+            int lsb = takePrefetched();
+            return (takePrefetched() << 8) | lsb;
+        }
+        if (recordingStream) {
+            long start = MemIoImpl.gettStates();
+            int word = MemIoImpl.peek16(regPC);
+            recordStream(word & 0xff, start);
+            recordStream(word >>> 8, MemIoImpl.gettStates());
+            return word;
+        }
+        return MemIoImpl.peek16(regPC);
+    }
+
+    private int takePrefetched() {
+        int value = prefetchedBytes & 0xff;
+        prefetchedBytes >>>= 8;
+        prefetchedCount--;
+        return value;
+    }
+
+    private int recordStream(int value, long start) {
+        if (recordedCount < 4) {
+            recordedBytes |= value << (recordedCount << 3);
+        }
+        recordedCount++;
+        recordedTStates += (int) (MemIoImpl.gettStates() - start);
+        return value;
+    }
+
     public final boolean isBreakpoint(int address) {
         return breakpointAt.get(address & 0xffff);
     }
@@ -1921,11 +1999,30 @@ public class Z80 {
 
     protected void decodeOpcode(int opCode) {
 
+        switch (opCode >> 6) {
+            case 0:
+                decodeMiscOps(opCode);
+                break;
+            case 1:
+                decodeLoadOps(opCode);
+                break;
+            case 2:
+                decodeAluOps(opCode);
+                break;
+            default:
+                decodeControlOps(opCode);
+        }
+    }
+
+    /**
+     * Opcodes 00-3F: 16 bit loads, INC/DEC, rotates of A, relative jumps.
+     */
+    private void decodeMiscOps(int opCode) {
         switch (opCode) {
 //            case 0x00:       /* NOP */
 //                break;
             case 0x01: {     /* LD BC,nn */
-                setRegBC(MemIoImpl.peek16(regPC));
+                setRegBC(peekStream16());
                 regPC = (regPC + 2) & 0xffff;
                 break;
             }
@@ -1948,7 +2045,7 @@ public class Z80 {
                 break;
             }
             case 0x06: {     /* LD B,n */
-                regB = MemIoImpl.peek8(regPC);
+                regB = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -1996,7 +2093,7 @@ public class Z80 {
                 break;
             }
             case 0x0E: {     /* LD C,n */
-                regC = MemIoImpl.peek8(regPC);
+                regC = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2012,7 +2109,7 @@ public class Z80 {
             }
             case 0x10: {     /* DJNZ e */
                 MemIoImpl.addressOnBus(getPairIR(), 1);
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 regB--;
                 if (regB != 0) {
                     regB &= 0xff;
@@ -2024,7 +2121,7 @@ public class Z80 {
                 break;
             }
             case 0x11: {     /* LD DE,nn */
-                setRegDE(MemIoImpl.peek16(regPC));
+                setRegDE(peekStream16());
                 regPC = (regPC + 2) & 0xffff;
                 break;
             }
@@ -2047,7 +2144,7 @@ public class Z80 {
                 break;
             }
             case 0x16: {     /* LD D,n */
-                regD = MemIoImpl.peek8(regPC);
+                regD = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2063,7 +2160,7 @@ public class Z80 {
                 break;
             }
             case 0x18: {     /* JR e */
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 MemIoImpl.addressOnBus(regPC, 5);
                 regPC = memptr = (regPC + offset + 1) & 0xffff;
                 break;
@@ -2092,7 +2189,7 @@ public class Z80 {
                 break;
             }
             case 0x1E: {     /* LD E,n */
-                regE = MemIoImpl.peek8(regPC);
+                regE = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2108,7 +2205,7 @@ public class Z80 {
                 break;
             }
             case 0x20: {     /* JR NZ,e */
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 if ((sz5h3pnFlags & ZERO_MASK) == 0) {
                     MemIoImpl.addressOnBus(regPC, 5);
                     regPC += offset;
@@ -2118,12 +2215,12 @@ public class Z80 {
                 break;
             }
             case 0x21: {     /* LD HL,nn */
-                setRegHL(MemIoImpl.peek16(regPC));
+                setRegHL(peekStream16());
                 regPC = (regPC + 2) & 0xffff;
                 break;
             }
             case 0x22: {     /* LD (nn),HL */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, getRegHL());
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -2142,7 +2239,7 @@ public class Z80 {
                 break;
             }
             case 0x26: {     /* LD H,n */
-                regH = MemIoImpl.peek8(regPC);
+                regH = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2151,7 +2248,7 @@ public class Z80 {
                 break;
             }
             case 0x28: {     /* JR Z,e */
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 if ((sz5h3pnFlags & ZERO_MASK) != 0) {
                     MemIoImpl.addressOnBus(regPC, 5);
                     regPC += offset;
@@ -2167,7 +2264,7 @@ public class Z80 {
                 break;
             }
             case 0x2A: {     /* LD HL,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 setRegHL(MemIoImpl.peek16(memptr++));
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -2186,7 +2283,7 @@ public class Z80 {
                 break;
             }
             case 0x2E: {     /* LD L,n */
-                regL = MemIoImpl.peek8(regPC);
+                regL = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2198,7 +2295,7 @@ public class Z80 {
                 break;
             }
             case 0x30: {     /* JR NC,e */
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 if (!carryFlag) {
                     MemIoImpl.addressOnBus(regPC, 5);
                     regPC += offset;
@@ -2208,12 +2305,12 @@ public class Z80 {
                 break;
             }
             case 0x31: {     /* LD SP,nn */
-                regSP = MemIoImpl.peek16(regPC);
+                regSP = peekStream16();
                 regPC = (regPC + 2) & 0xffff;
                 break;
             }
             case 0x32: {     /* LD (nn),A */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke8(memptr, regA);
                 memptr = (regA << 8) | ((memptr + 1) & 0xff);
                 regPC = (regPC + 2) & 0xffff;
@@ -2239,7 +2336,7 @@ public class Z80 {
                 break;
             }
             case 0x36: {     /* LD (HL),n */
-                MemIoImpl.poke8(getRegHL(), MemIoImpl.peek8(regPC));
+                MemIoImpl.poke8(getRegHL(), peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2251,7 +2348,7 @@ public class Z80 {
                 break;
             }
             case 0x38: {     /* JR C,e */
-                byte offset = (byte) MemIoImpl.peek8(regPC);
+                byte offset = (byte) peekStream8();
                 if (carryFlag) {
                     MemIoImpl.addressOnBus(regPC, 5);
                     regPC += offset;
@@ -2266,7 +2363,7 @@ public class Z80 {
                 break;
             }
             case 0x3A: {     /* LD A,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 regA = MemIoImpl.peek8(memptr++);
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -2285,7 +2382,7 @@ public class Z80 {
                 break;
             }
             case 0x3E: {     /* LD A,n */
-                regA = MemIoImpl.peek8(regPC);
+                regA = peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2299,6 +2396,14 @@ public class Z80 {
                 flagQ = true;
                 break;
             }
+        }
+    }
+
+    /**
+     * Opcodes 40-7F: 8 bit register loads and HALT.
+     */
+    private void decodeLoadOps(int opCode) {
+        switch (opCode) {
 //            case 0x40: {     /* LD B,B */
 //                break;
 //            }
@@ -2548,6 +2653,14 @@ public class Z80 {
 //            case 0x7F: {     /* LD A,A */
 //                break;
 //            }
+        }
+    }
+
+    /**
+     * Opcodes 80-BF: 8 bit arithmetic and logic on A.
+     */
+    private void decodeAluOps(int opCode) {
+        switch (opCode) {
             case 0x80: {     /* ADD A,B */
                 add(regB);
                 break;
@@ -2804,6 +2917,14 @@ public class Z80 {
                 cp(regA);
                 break;
             }
+        }
+    }
+
+    /**
+     * Opcodes C0-FF: jumps, calls, returns, stack, I/O and the prefixes.
+     */
+    private void decodeControlOps(int opCode) {
+        switch (opCode) {
             case 0xC0: {     /* RET NZ */
                 MemIoImpl.addressOnBus(getPairIR(), 1);
                 if ((sz5h3pnFlags & ZERO_MASK) == 0) {
@@ -2816,7 +2937,7 @@ public class Z80 {
                 break;
             }
             case 0xC2: {     /* JP NZ,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & ZERO_MASK) == 0) {
                     regPC = memptr;
                     break;
@@ -2825,11 +2946,11 @@ public class Z80 {
                 break;
             }
             case 0xC3: {     /* JP nn */
-                memptr = regPC = MemIoImpl.peek16(regPC);
+                memptr = regPC = peekStream16();
                 break;
             }
             case 0xC4: {     /* CALL NZ,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & ZERO_MASK) == 0) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -2845,7 +2966,7 @@ public class Z80 {
                 break;
             }
             case 0xC6: {     /* ADD A,n */
-                add(MemIoImpl.peek8(regPC));
+                add(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2867,7 +2988,7 @@ public class Z80 {
                 break;
             }
             case 0xCA: {     /* JP Z,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & ZERO_MASK) != 0) {
                     regPC = memptr;
                     break;
@@ -2880,7 +3001,7 @@ public class Z80 {
                 break;
             }
             case 0xCC: {     /* CALL Z,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & ZERO_MASK) != 0) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -2891,14 +3012,14 @@ public class Z80 {
                 break;
             }
             case 0xCD: {     /* CALL nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                 push(regPC + 2);
                 regPC = memptr;
                 break;
             }
             case 0xCE: {     /* ADC A,n */
-                adc(MemIoImpl.peek8(regPC));
+                adc(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2920,7 +3041,7 @@ public class Z80 {
                 break;
             }
             case 0xD2: {     /* JP NC,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (!carryFlag) {
                     regPC = memptr;
                     break;
@@ -2929,7 +3050,7 @@ public class Z80 {
                 break;
             }
             case 0xD3: {     /* OUT (n),A */
-                int work8 = MemIoImpl.peek8(regPC);
+                int work8 = peekStream8();
                 memptr = regA << 8;
                 MemIoImpl.outPort(memptr | work8, regA);
                 memptr |= ((work8 + 1) & 0xff);
@@ -2937,7 +3058,7 @@ public class Z80 {
                 break;
             }
             case 0xD4: {     /* CALL NC,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (!carryFlag) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -2953,7 +3074,7 @@ public class Z80 {
                 break;
             }
             case 0xD6: {     /* SUB n */
-                sub(MemIoImpl.peek8(regPC));
+                sub(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -2997,7 +3118,7 @@ public class Z80 {
                 break;
             }
             case 0xDA: {     /* JP C,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (carryFlag) {
                     regPC = memptr;
                     break;
@@ -3006,13 +3127,13 @@ public class Z80 {
                 break;
             }
             case 0xDB: {     /* IN A,(n) */
-                memptr = (regA << 8) | MemIoImpl.peek8(regPC);
+                memptr = (regA << 8) | peekStream8();
                 regA = MemIoImpl.inPort(memptr++);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0xDC: {     /* CALL C,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (carryFlag) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -3023,14 +3144,14 @@ public class Z80 {
                 break;
             }
             case 0xDD: {     /* Subconjunto de instrucciones */
-                opCode = MemIoImpl.fetchOpcode(regPC);
+                opCode = fetchStreamOpcode();
                 regPC = (regPC + 1) & 0xffff;
                 regR++;
                 regIX = decodeDDFD(opCode, regIX);
                 break;
             }
             case 0xDE: {     /* SBC A,n */
-                sbc(MemIoImpl.peek8(regPC));
+                sbc(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -3050,7 +3171,7 @@ public class Z80 {
                 setRegHL(pop());
                 break;
             case 0xE2:       /* JP PO,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & PARITY_MASK) == 0) {
                     regPC = memptr;
                     break;
@@ -3071,7 +3192,7 @@ public class Z80 {
                 break;
             }
             case 0xE4:       /* CALL PO,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & PARITY_MASK) == 0) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -3085,7 +3206,7 @@ public class Z80 {
                 push(getRegHL());
                 break;
             case 0xE6:       /* AND n */
-                and(MemIoImpl.peek8(regPC));
+                and(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             case 0xE7:       /* RST 20H */
@@ -3103,7 +3224,7 @@ public class Z80 {
                 regPC = getRegHL();
                 break;
             case 0xEA:       /* JP PE,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & PARITY_MASK) != 0) {
                     regPC = memptr;
                     break;
@@ -3121,7 +3242,7 @@ public class Z80 {
                 break;
             }
             case 0xEC:       /* CALL PE,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if ((sz5h3pnFlags & PARITY_MASK) != 0) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -3131,13 +3252,13 @@ public class Z80 {
                 regPC = (regPC + 2) & 0xffff;
                 break;
             case 0xED:       /*Subconjunto de instrucciones*/
-                opCode = MemIoImpl.fetchOpcode(regPC);
+                opCode = fetchStreamOpcode();
                 regPC = (regPC + 1) & 0xffff;
                 regR++;
                 decodeED(opCode);
                 break;
             case 0xEE:       /* XOR n */
-                xor(MemIoImpl.peek8(regPC));
+                xor(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             case 0xEF:       /* RST 28H */
@@ -3155,7 +3276,7 @@ public class Z80 {
                 setRegAF(pop());
                 break;
             case 0xF2:       /* JP P,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (sz5h3pnFlags < SIGN_MASK) {
                     regPC = memptr;
                     break;
@@ -3166,7 +3287,7 @@ public class Z80 {
                 ffIFF1 = ffIFF2 = false;
                 break;
             case 0xF4:       /* CALL P,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (sz5h3pnFlags < SIGN_MASK) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -3180,7 +3301,7 @@ public class Z80 {
                 push(getRegAF());
                 break;
             case 0xF6:       /* OR n */
-                or(MemIoImpl.peek8(regPC));
+                or(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             case 0xF7:       /* RST 30H */
@@ -3199,7 +3320,7 @@ public class Z80 {
                 regSP = getRegHL();
                 break;
             case 0xFA:       /* JP M,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (sz5h3pnFlags > 0x7f) {
                     regPC = memptr;
                     break;
@@ -3211,7 +3332,7 @@ public class Z80 {
                 pendingEI = true;
                 break;
             case 0xFC:       /* CALL M,nn */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 if (sz5h3pnFlags > 0x7f) {
                     MemIoImpl.addressOnBus((regPC + 1) & 0xffff, 1);
                     push(regPC + 2);
@@ -3221,13 +3342,13 @@ public class Z80 {
                 regPC = (regPC + 2) & 0xffff;
                 break;
             case 0xFD:       /* Subconjunto de instrucciones */
-                opCode = MemIoImpl.fetchOpcode(regPC);
+                opCode = fetchStreamOpcode();
                 regPC = (regPC + 1) & 0xffff;
                 regR++;
                 regIY = decodeDDFD(opCode, regIY);
                 break;
             case 0xFE:       /* CP n */
-                cp(MemIoImpl.peek8(regPC));
+                cp(peekStream8());
                 regPC = (regPC + 1) & 0xffff;
                 break;
             case 0xFF:       /* RST 38H */
@@ -3239,10 +3360,29 @@ public class Z80 {
 
     //Subconjunto de instrucciones 0xCB
     private void decodeCB() {
-        int opCode = MemIoImpl.fetchOpcode(regPC);
+        int opCode = fetchStreamOpcode();
         regPC = (regPC + 1) & 0xffff;
         regR++;
 
+        switch (opCode >> 6) {
+            case 0:
+                decodeCBRotate(opCode);
+                break;
+            case 1:
+                decodeCBBit(opCode);
+                break;
+            case 2:
+                decodeCBRes(opCode);
+                break;
+            default:
+                decodeCBSet(opCode);
+        }
+    }
+
+    /**
+     * CB 00-3F: rotates and shifts.
+     */
+    private void decodeCBRotate(int opCode) {
         switch (opCode) {
             case 0x00: {     /* RLC B */
                 regB = rlc(regB);
@@ -3524,6 +3664,14 @@ public class Z80 {
                 regA = srl(regA);
                 break;
             }
+        }
+    }
+
+    /**
+     * CB 40-7F: BIT b,r.
+     */
+    private void decodeCBBit(int opCode) {
+        switch (opCode) {
             case 0x40: {     /* BIT 0,B */
                 bit(0x01, regB);
                 break;
@@ -3812,6 +3960,14 @@ public class Z80 {
                 bit(0x80, regA);
                 break;
             }
+        }
+    }
+
+    /**
+     * CB 80-BF: RES b,r.
+     */
+    private void decodeCBRes(int opCode) {
+        switch (opCode) {
             case 0x80: {     /* RES 0,B */
                 regB &= 0xFE;
                 break;
@@ -4092,6 +4248,14 @@ public class Z80 {
                 regA &= 0x7F;
                 break;
             }
+        }
+    }
+
+    /**
+     * CB C0-FF: SET b,r.
+     */
+    private void decodeCBSet(int opCode) {
+        switch (opCode) {
             case 0xC0: {     /* SET 0,B */
                 regB |= 0x01;
                 break;
@@ -4406,12 +4570,12 @@ public class Z80 {
                 break;
             }
             case 0x21: {     /* LD IX,nn */
-                regIXY = MemIoImpl.peek16(regPC);
+                regIXY = peekStream16();
                 regPC = (regPC + 2) & 0xffff;
                 break;
             }
             case 0x22: {     /* LD (nn),IX */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, regIXY);
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -4430,7 +4594,7 @@ public class Z80 {
                 break;
             }
             case 0x26: {     /* LD IXh,n */
-                regIXY = (MemIoImpl.peek8(regPC) << 8) | (regIXY & 0xff);
+                regIXY = (peekStream8() << 8) | (regIXY & 0xff);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
@@ -4440,7 +4604,7 @@ public class Z80 {
                 break;
             }
             case 0x2A: {     /* LD IX,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 regIXY = MemIoImpl.peek16(memptr++);
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -4459,12 +4623,12 @@ public class Z80 {
                 break;
             }
             case 0x2E: {     /* LD IXl,n */
-                regIXY = (regIXY & 0xff00) | MemIoImpl.peek8(regPC);
+                regIXY = (regIXY & 0xff00) | peekStream8();
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x34: {     /* INC (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 int work8 = MemIoImpl.peek8(memptr);
                 MemIoImpl.addressOnBus(memptr, 1);
@@ -4473,7 +4637,7 @@ public class Z80 {
                 break;
             }
             case 0x35: {     /* DEC (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 int work8 = MemIoImpl.peek8(memptr);
                 MemIoImpl.addressOnBus(memptr, 1);
@@ -4482,9 +4646,9 @@ public class Z80 {
                 break;
             }
             case 0x36: {     /* LD (IX+d),n */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 regPC = (regPC + 1) & 0xffff;
-                int work8 = MemIoImpl.peek8(regPC);
+                int work8 = peekStream8();
                 MemIoImpl.addressOnBus(regPC, 2);
                 regPC = (regPC + 1) & 0xffff;
                 MemIoImpl.poke8(memptr, work8);
@@ -4504,7 +4668,7 @@ public class Z80 {
                 break;
             }
             case 0x46: {     /* LD B,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regB = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4519,7 +4683,7 @@ public class Z80 {
                 break;
             }
             case 0x4E: {     /* LD C,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regC = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4534,7 +4698,7 @@ public class Z80 {
                 break;
             }
             case 0x56: {     /* LD D,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regD = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4549,7 +4713,7 @@ public class Z80 {
                 break;
             }
             case 0x5E: {     /* LD E,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regE = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4579,7 +4743,7 @@ public class Z80 {
                 break;
             }
             case 0x66: {     /* LD H,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regH = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4613,7 +4777,7 @@ public class Z80 {
                 break;
             }
             case 0x6E: {     /* LD L,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regL = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4624,49 +4788,49 @@ public class Z80 {
                 break;
             }
             case 0x70: {     /* LD (IX+d),B */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regB);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x71: {     /* LD (IX+d),C */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regC);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x72: {     /* LD (IX+d),D */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regD);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x73: {     /* LD (IX+d),E */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regE);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x74: {     /* LD (IX+d),H */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regH);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x75: {     /* LD (IX+d),L */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regL);
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0x77: {     /* LD (IX+d),A */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 MemIoImpl.poke8(memptr, regA);
                 regPC = (regPC + 1) & 0xffff;
@@ -4681,7 +4845,7 @@ public class Z80 {
                 break;
             }
             case 0x7E: {     /* LD A,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 regA = MemIoImpl.peek8(memptr);
                 regPC = (regPC + 1) & 0xffff;
@@ -4696,7 +4860,7 @@ public class Z80 {
                 break;
             }
             case 0x86: {     /* ADD A,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 add(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4711,7 +4875,7 @@ public class Z80 {
                 break;
             }
             case 0x8E: {     /* ADC A,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 adc(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4726,7 +4890,7 @@ public class Z80 {
                 break;
             }
             case 0x96: {     /* SUB (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 sub(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4741,7 +4905,7 @@ public class Z80 {
                 break;
             }
             case 0x9E: {     /* SBC A,(IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 sbc(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4756,7 +4920,7 @@ public class Z80 {
                 break;
             }
             case 0xA6: {     /* AND (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 and(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4771,7 +4935,7 @@ public class Z80 {
                 break;
             }
             case 0xAE: {     /* XOR (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 xor(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4786,7 +4950,7 @@ public class Z80 {
                 break;
             }
             case 0xB6: {     /* OR (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 or(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
@@ -4801,16 +4965,16 @@ public class Z80 {
                 break;
             }
             case 0xBE: {     /* CP (IX+d) */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 MemIoImpl.addressOnBus(regPC, 5);
                 cp(MemIoImpl.peek8(memptr));
                 regPC = (regPC + 1) & 0xffff;
                 break;
             }
             case 0xCB: {     /* Subconjunto de instrucciones */
-                memptr = (regIXY + (byte) MemIoImpl.peek8(regPC)) & 0xffff;
+                memptr = (regIXY + (byte) peekStream8()) & 0xffff;
                 regPC = (regPC + 1) & 0xffff;
-                opCode = MemIoImpl.peek8(regPC);
+                opCode = peekStream8();
                 MemIoImpl.addressOnBus(regPC, 2);
                 regPC = (regPC + 1) & 0xffff;
                 decodeDDFDCB(opCode, memptr);
@@ -4846,7 +5010,7 @@ public class Z80 {
                 break;
             }
             case 0xED: {
-                opCode = MemIoImpl.fetchOpcode(regPC);
+                opCode = fetchStreamOpcode();
                 regPC = (regPC + 1) & 0xffff;
                 regR++;
                 decodeED(opCode);
@@ -5361,7 +5525,7 @@ public class Z80 {
                 break;
             }
             case 0x43: {     /* LD (nn),BC */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, getRegBC());
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5425,7 +5589,7 @@ public class Z80 {
                 break;
             }
             case 0x4B: {     /* LD BC,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 setRegBC(MemIoImpl.peek16(memptr++));
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5453,7 +5617,7 @@ public class Z80 {
                 break;
             }
             case 0x53: {     /* LD (nn),DE */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, getRegDE());
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5491,7 +5655,7 @@ public class Z80 {
                 break;
             }
             case 0x5B: {     /* LD DE,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 setRegDE(MemIoImpl.peek16(memptr++));
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5529,7 +5693,7 @@ public class Z80 {
                 break;
             }
             case 0x63: {     /* LD (nn),HL */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, getRegHL());
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5556,7 +5720,7 @@ public class Z80 {
                 break;
             }
             case 0x6B: {     /* LD HL,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 setRegHL(MemIoImpl.peek16(memptr++));
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5583,7 +5747,7 @@ public class Z80 {
                 break;
             }
             case 0x73: {     /* LD (nn),SP */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 MemIoImpl.poke16(memptr++, regSP);
                 regPC = (regPC + 2) & 0xffff;
                 break;
@@ -5606,7 +5770,7 @@ public class Z80 {
                 break;
             }
             case 0x7B: {     /* LD SP,(nn) */
-                memptr = MemIoImpl.peek16(regPC);
+                memptr = peekStream16();
                 regSP = MemIoImpl.peek16(memptr++);
                 regPC = (regPC + 2) & 0xffff;
                 break;
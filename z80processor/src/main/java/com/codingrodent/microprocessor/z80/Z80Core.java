@@ -274,9 +274,23 @@ public class Z80Core implements ICPUData {
      *
      * @param opcode Instruction byte
      */
-    @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT", justification = "Bytes can only be 0..255")
     private void decodeOneByteInstruction(int opcode) {
         tStates = tStates + OPCODE_T_STATES[opcode];
+        switch (opcode >> 6) {
+            case 0 -> decodeMiscOneByte(opcode);
+            case 1 -> decodeLoadOneByte(opcode);
+            case 2 -> decodeAluOneByte(opcode);
+            default -> decodeControlOneByte(opcode);
+        }
+    }
+
+    /**
+     * One byte instructions 0x00-0x3F: 16 bit loads, INC/DEC, rotates of A and relative jumps
+     *
+     * @param opcode Instruction byte
+     */
+    @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT", justification = "Bytes can only be 0..255")
+    private void decodeMiscOneByte(int opcode) {
         switch (opcode) {
             case 0x00 -> {
             } // null
@@ -424,6 +438,17 @@ public class Z80Core implements ICPUData {
                 incPC();
             } // ld a,n
             case 0x3F -> CCF(); // ccf
+        }
+    }
+
+    /**
+     * One byte instructions 0x40-0x7F: 8 bit register loads and HALT
+     *
+     * @param opcode Instruction byte
+     */
+    @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT", justification = "Bytes can only be 0..255")
+    private void decodeLoadOneByte(int opcode) {
+        switch (opcode) {
             // LD B,*
             case 0x40 -> {
             } /* reg_B = reg_B; */ // ld b,b
@@ -507,6 +532,17 @@ public class Z80Core implements ICPUData {
             case 0x7E -> reg_A = ram.readByte(getHL()); // ld a,(hl)
             case 0x7F -> {
             }  /* reg_A = reg_A; */ // ld a,a
+        }
+    }
+
+    /**
+     * One byte instructions 0x80-0xBF: 8 bit arithmetic and logic on A
+     *
+     * @param opcode Instruction byte
+     */
+    @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT", justification = "Bytes can only be 0..255")
+    private void decodeAluOneByte(int opcode) {
+        switch (opcode) {
             // add
             case 0x80 -> ALU8BitAdd(reg_B);
             case 0x81 -> ALU8BitAdd(reg_C);
@@ -579,6 +615,17 @@ public class Z80Core implements ICPUData {
             case 0xBD -> ALU8BitCp(reg_L);
             case 0xBE -> ALU8BitCp(ram.readByte(getHL()));
             case 0xBF -> ALU8BitCp(reg_A);
+        }
+    }
+
+    /**
+     * One byte instructions 0xC0-0xFF: jumps, calls, returns, stack, I/O and the prefixes
+     *
+     * @param opcode Instruction byte
+     */
+    @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT", justification = "Bytes can only be 0..255")
+    private void decodeControlOneByte(int opcode) {
+        switch (opcode) {
             //
             case 0xC0 -> ret(!getZ());
             case 0xC1 -> {